@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of copying one board, for search workers and what-if analysis
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardCopyBenchmark {
+
+    private ChessBoard board;
+    private ChessBoard target;
+
+    @Setup
+    public void setUp() {
+        ChessGame[] games = Positions.middlegames();
+        board = games[0].getBoard();
+        target = new ChessBoard();
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public ChessBoard copyInto() {
+        board.copyInto(target);
+        return target;
+    }
+}
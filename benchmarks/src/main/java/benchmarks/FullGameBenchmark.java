@@ -0,0 +1,107 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays whole games through makeMove, checking the game status after
+ * every move the way the server does. Every replay after the first finds its
+ * positions in the shared legal move cache, so the uncached variants run with
+ * it turned off to show the cost of positions no game has reached before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FullGameBenchmark {
+
+    // the scholar's mate from FullGameTest
+    private static final ChessMove[] SCHOLARS_MATE = {
+            new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+            new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+            new ChessMove(new ChessPosition(1, 6), new ChessPosition(4, 3), null),
+            new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 8), null),
+            new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+            new ChessMove(new ChessPosition(5, 8), new ChessPosition(7, 6), null),
+    };
+
+    private static final int LONG_GAME_MOVES = 120;
+
+    private ChessMove[] longGame;
+
+    @Setup
+    public void setUp() {
+        // a long game of seeded random legal moves, so the replay is the same every run
+        Random random = new Random(240);
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        while (moves.size() < LONG_GAME_MOVES) {
+            List<ChessMove> legal = new ArrayList<>();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = new ChessPosition(row, col);
+                    if (game.getBoard().getTeamOfSquare(position) == game.getTeamTurn()) {
+                        Collection<ChessMove> valid = game.validMoves(position);
+                        legal.addAll(valid);
+                    }
+                }
+            }
+            if (legal.isEmpty()) {
+                break;
+            }
+            legal.sort((a, b) -> a.toString().compareTo(b.toString()));
+            ChessMove move = legal.get(random.nextInt(legal.size()));
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException(e);
+            }
+            moves.add(move);
+        }
+        longGame = moves.toArray(new ChessMove[0]);
+    }
+
+    @Benchmark
+    public void scholarsMate(Blackhole blackhole) throws InvalidMoveException {
+        replay(SCHOLARS_MATE, blackhole);
+    }
+
+    @Benchmark
+    public void longGame(Blackhole blackhole) throws InvalidMoveException {
+        replay(longGame, blackhole);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dchess.legalMoveCacheMegabytes=0")
+    public void scholarsMateUncached(Blackhole blackhole) throws InvalidMoveException {
+        replay(SCHOLARS_MATE, blackhole);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dchess.legalMoveCacheMegabytes=0")
+    public void longGameUncached(Blackhole blackhole) throws InvalidMoveException {
+        replay(longGame, blackhole);
+    }
+
+    private static void replay(ChessMove[] moves, Blackhole blackhole) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            blackhole.consume(game.isInCheckmate(game.getTeamTurn()));
+            blackhole.consume(game.isInStalemate(game.getTeamTurn()));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChessGame rules calls the server makes on every move, run over every
+ * position in the corpus. The positions never change, so the plain variants
+ * mostly measure ChessGame's caches; the uncached ones run with the shared
+ * legal move cache turned off and change the board before every call, which
+ * is what a game pays on the first call after a move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+    private static final String NO_SHARED_CACHE = "-Dchess.legalMoveCacheMegabytes=0";
+
+    private ChessGame[] games;
+    // the pieces of the team to move in each game
+    private ChessPosition[][] movers;
+    // a legal move in each game
+    private ChessMove[] firstMoves;
+
+    @Setup
+    public void setUp() {
+        games = Positions.middlegames();
+        movers = new ChessPosition[games.length][];
+        firstMoves = new ChessMove[games.length];
+        for (int i = 0; i < games.length; i++) {
+            List<ChessPosition> found = new ArrayList<>();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = new ChessPosition(row, col);
+                    ChessPiece piece = games[i].getBoard().getPiece(position);
+                    if (piece != null && piece.getTeamColor() == games[i].getTeamTurn()) {
+                        found.add(position);
+                        Collection<ChessMove> moves = games[i].validMoves(position);
+                        if (firstMoves[i] == null && !moves.isEmpty()) {
+                            firstMoves[i] = moves.iterator().next();
+                        }
+                    }
+                }
+            }
+            movers[i] = found.toArray(new ChessPosition[0]);
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            for (ChessPosition position : movers[i]) {
+                blackhole.consume(games[i].validMoves(position));
+            }
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_SHARED_CACHE)
+    public void validMovesUncached(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            for (ChessPosition position : movers[i]) {
+                touch(games[i], position);
+                blackhole.consume(games[i].validMoves(position));
+            }
+        }
+    }
+
+    @Benchmark
+    public void makeMove() throws InvalidMoveException {
+        for (int i = 0; i < games.length; i++) {
+            games[i].makeMove(firstMoves[i]);
+            games[i].undoMove();
+        }
+    }
+
+    @Benchmark
+    public void gameStatus(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.isInCheckmate(game.getTeamTurn()));
+            blackhole.consume(game.isInStalemate(game.getTeamTurn()));
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_SHARED_CACHE)
+    public void gameStatusUncached(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            ChessGame game = games[i];
+            touch(game, movers[i][0]);
+            blackhole.consume(game.isInCheckmate(game.getTeamTurn()));
+            blackhole.consume(game.isInStalemate(game.getTeamTurn()));
+        }
+    }
+
+    @Benchmark
+    public void combinedGameStatus(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(game.gameStatus());
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = NO_SHARED_CACHE)
+    public void combinedGameStatusUncached(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            touch(games[i], movers[i][0]);
+            blackhole.consume(games[i].gameStatus());
+        }
+    }
+
+    // puts a piece back where it stands, which leaves the position alone but
+    // gives the board a new version, so the game's cached results are dropped
+    private static void touch(ChessGame game, ChessPosition position) {
+        ChessBoard board = game.getBoard();
+        board.addPiece(position, board.getPiece(position));
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessPiece.pieceMoves for every piece of one type across the corpus
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard[] boards;
+    private ChessPosition[][] positions;
+
+    @Setup
+    public void setUp() {
+        ChessGame[] games = Positions.middlegames();
+        boards = new ChessBoard[games.length];
+        positions = new ChessPosition[games.length][];
+        for (int i = 0; i < games.length; i++) {
+            boards[i] = games[i].getBoard();
+            List<ChessPosition> found = new ArrayList<>();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPiece piece = boards[i].getPiece(new ChessPosition(row, col));
+                    if (piece != null && piece.getPieceType() == type) {
+                        found.add(new ChessPosition(row, col));
+                    }
+                }
+            }
+            positions[i] = found.toArray(new ChessPosition[0]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            for (ChessPosition position : positions[i]) {
+                ChessPiece piece = boards[i].getPiece(position);
+                blackhole.consume(piece.pieceMoves(boards[i], position));
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+
+/**
+ * The fixed corpus of positions every benchmark runs over: realistic
+ * middlegames with plenty of pieces left and both sides still developing
+ * or attacking.
+ */
+public final class Positions {
+
+    public static final String[] MIDDLEGAMES = {
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w - - 4 4",
+            "rnbqkb1r/pp3ppp/4pn2/2pp4/2PP4/2N2N2/PP2PPPP/R1BQKB1R w - - 0 5",
+            "r1bq1rk1/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R2QK2R w - - 0 8",
+            "r2q1rk1/pp1nbppp/2p1pn2/3p4/2PP4/2N1PN2/PPQ1BPPP/R3K2R b - - 0 9",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+            "2rq1rk1/pb1nbppp/1p2pn2/2pp4/2PP4/1PN1PN2/PB1QBPPP/2R2RK1 w - - 0 12",
+            "r1b2rk1/2q1bppp/p2ppn2/1p6/3NP3/1BN1B3/PPP1QPPP/R4RK1 w - - 0 12",
+    };
+
+    private Positions() {
+    }
+
+    /**
+     * @return a fresh game for every position in the corpus
+     */
+    public static ChessGame[] middlegames() {
+        ChessGame[] games = new ChessGame[MIDDLEGAMES.length];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = Fen.parse(MIDDLEGAMES[i]);
+        }
+        return games;
+    }
+}
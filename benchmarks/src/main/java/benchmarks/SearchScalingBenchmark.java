@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed search depth on every position in the corpus, by
+ * number of search threads. Each invocation starts from an empty table, so
+ * the helpers have to earn their speedup within the search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchScalingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame[] games;
+    private Engine engine;
+    private SearchLimits limits;
+
+    @Setup
+    public void setUp() {
+        games = Positions.middlegames();
+        engine = new Engine(64);
+        limits = SearchLimits.depth(depth).withThreads(threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        engine.table().clear();
+    }
+
+    @Benchmark
+    public void timeToDepth(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(engine.bestMove(game, limits));
+        }
+    }
+}
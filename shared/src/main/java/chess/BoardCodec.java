@@ -0,0 +1,103 @@
+package chess;
+
+/**
+ * Encodes boards and games as compact bytes, for storing games and sending
+ * them over the network without the bulk of JSON.
+ * <p>
+ * A board is 32 bytes: one nibble per square, square 0 (row 1, column 1) in
+ * the low nibble of the first byte up to square 63 in the high nibble of the
+ * last, each holding 0 for an empty square or the piece code + 1. A game
+ * adds one byte after the board, with bit 0 set when it is black's turn.
+ * The other bits are for castling and en passant rights, which these rules
+ * don't have, so they are always 0.
+ */
+public final class BoardCodec {
+
+    public static final int BOARD_BYTES = 32;
+    public static final int GAME_BYTES = BOARD_BYTES + 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+
+    private BoardCodec() {
+    }
+
+    /**
+     * @return the board's pieces as BOARD_BYTES bytes
+     */
+    public static byte[] encode(ChessBoard board) {
+        byte[] bytes = new byte[BOARD_BYTES];
+        encodeInto(board, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * @return the game's board and turn as GAME_BYTES bytes
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[GAME_BYTES];
+        encodeInto(game.getBoard(), game.getTeamTurn(), bytes);
+        return bytes;
+    }
+
+    // writes a board with the given team to move as GAME_BYTES bytes, without allocating
+    static void encodeInto(ChessBoard board, ChessGame.TeamColor teamTurn, byte[] bytes) {
+        encodeInto(board, bytes, 0);
+        bytes[BOARD_BYTES] = (byte) (teamTurn == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0);
+    }
+
+    /**
+     * Writes the board's pieces into BOARD_BYTES bytes of an existing array,
+     * without allocating
+     *
+     * @param board  the board to encode
+     * @param bytes  the array to write into
+     * @param offset where in the array to start writing
+     */
+    public static void encodeInto(ChessBoard board, byte[] bytes, int offset) {
+        for (int i = 0; i < BOARD_BYTES; i++) {
+            int low = board.codeAt(2 * i) + 1;
+            int high = board.codeAt(2 * i + 1) + 1;
+            bytes[offset + i] = (byte) (low | (high << 4));
+        }
+    }
+
+    /**
+     * @return a new board with the pieces of an encoded board or game
+     * @throws IllegalArgumentException if the bytes aren't an encoded board
+     */
+    public static ChessBoard decodeBoard(byte[] bytes) {
+        if (bytes.length != BOARD_BYTES && bytes.length != GAME_BYTES) {
+            throw new IllegalArgumentException("Encoded board must be " + BOARD_BYTES + " or " + GAME_BYTES
+                    + " bytes: " + bytes.length);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int nibble = (bytes[square / 2] >> (4 * (square % 2))) & 0xF;
+            if (nibble > 12) {
+                throw new IllegalArgumentException("Bad piece " + nibble + " on square " + square);
+            }
+            if (nibble != 0) {
+                board.setSquare(square, nibble - 1);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return a new game with the board and turn of an encoded game
+     * @throws IllegalArgumentException if the bytes aren't an encoded game
+     */
+    public static ChessGame decodeGame(byte[] bytes) {
+        if (bytes.length != GAME_BYTES) {
+            throw new IllegalArgumentException("Encoded game must be " + GAME_BYTES + " bytes: " + bytes.length);
+        }
+        int flags = bytes[BOARD_BYTES] & 0xFF;
+        if ((flags & ~BLACK_TO_MOVE) != 0) {
+            throw new IllegalArgumentException("Unsupported game flags: " + flags);
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(decodeBoard(bytes));
+        game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        return game;
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of a game's position at one moment. A game publishes a
+ * new snapshot after every move, so any number of threads can read the
+ * latest position without locking and without ever seeing a move half
+ * played, while the live board keeps changing.
+ */
+public final class BoardSnapshot {
+
+    // piece code + 1 of each square, 0 when empty, as ChessBoard stores them
+    private final byte[] squares;
+    private final ChessGame.TeamColor teamTurn;
+    private final long positionKey;
+
+    BoardSnapshot(ChessBoard board, ChessGame.TeamColor teamTurn, long positionKey) {
+        this.squares = board.squares();
+        this.teamTurn = teamTurn;
+        this.positionKey = positionKey;
+    }
+
+    /**
+     * @return Either the piece at the position, or null if no piece is at that
+     * position
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        int code = squares[position.index()] - 1;
+        return code == ChessBoard.EMPTY ? null : ChessPiece.of(ChessBoard.colorOf(code), ChessBoard.typeOf(code));
+    }
+
+    /**
+     * @return Which team's turn it was
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return the game's position key when the snapshot was taken
+     */
+    public long positionKey() {
+        return positionKey;
+    }
+
+    /**
+     * @return a new mutable board with the snapshot's pieces on it
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != 0) {
+                board.setSquare(square, squares[square] - 1);
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSnapshot{" +
+                "teamTurn=" + teamTurn +
+                ", board=" + toBoard() +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BoardSnapshot that = (BoardSnapshot) o;
+        return teamTurn == that.teamTurn && Arrays.equals(squares, that.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionKey);
+    }
+}
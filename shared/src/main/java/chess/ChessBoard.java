@@ -1,20 +1,50 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored as bitboards, one long per piece type and color, with
+ * square 0 being row 1 column 1 and square 63 being row 8 column 8. A byte
+ * per square is kept alongside so getPiece doesn't have to search the boards.
+ * Only those bytes are serialized; the bitboards, key and running totals are
+ * transient and rebuilt from them when a board is read back.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard {
-    
-    private ChessPiece[][] gameBoard;
+
+    static final int EMPTY = -1;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    // one bitboard per piece code
+    private final transient long[] pieceBoards;
+    // one bitboard per team color
+    private final transient long[] colorBoards;
+    private transient long occupied;
+    // piece code + 1 of each square, 0 when empty
+    private final byte[] squares;
+    // Zobrist key of the pieces on the board, kept up to date as pieces are added and removed
+    private transient long key;
+    // running totals of PieceSquareTables over the pieces on the board
+    private transient int middlegame;
+    private transient int endgame;
+    private transient int phase;
+    // material value of each team's pieces, indexed by team color ordinal
+    private final transient int[] material = new int[2];
+    // bumped by every change to the pieces, so cached results can tell they're stale
+    private transient long version;
 
     public ChessBoard() {
-        gameBoard = new ChessPiece[8][8];
+        pieceBoards = new long[12];
+        colorBoards = new long[2];
+        squares = new byte[64];
     }
 
     /**
@@ -24,7 +54,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        gameBoard[position.getColumn() - 1][position.getRow() - 1] = piece;
+        int square = position.index();
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, pieceCode(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -35,14 +69,56 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return gameBoard[position.getColumn() - 1][position.getRow() - 1];
+        return pieceAt(position.index());
+    }
+
+    /**
+     * Gets a chess piece on the chessboard by square number
+     *
+     * @param square the square, 0 (row 1, column 1) to 63 (row 8, column 8)
+     * @return Either the piece on the square, or null if no piece is there
+     */
+    public ChessPiece pieceAt(int square) {
+        int code = squares[square] - 1;
+        return code == EMPTY ? null : ChessPiece.of(colorOf(code), typeOf(code));
     }
 
     public ChessGame.TeamColor getTeamOfSquare (ChessPosition position) {
-        if (getPiece(position) == null) {
+        int code = codeAt(position.index());
+        if (code == EMPTY) {
             return null;
         }
-        return getPiece(position).getTeamColor();
+        return colorOf(code);
+    }
+
+    /**
+     * @return a new board with the same pieces, made by copying the backing
+     * arrays rather than adding the pieces one by one
+     */
+    public ChessBoard copy() {
+        ChessBoard copy = new ChessBoard();
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Overwrites another board with this board's pieces, without allocating
+     *
+     * @param target the board to copy onto
+     */
+    public void copyInto(ChessBoard target) {
+        System.arraycopy(pieceBoards, 0, target.pieceBoards, 0, pieceBoards.length);
+        System.arraycopy(colorBoards, 0, target.colorBoards, 0, colorBoards.length);
+        System.arraycopy(squares, 0, target.squares, 0, squares.length);
+        target.occupied = occupied;
+        target.key = key;
+        target.middlegame = middlegame;
+        target.endgame = endgame;
+        target.phase = phase;
+        target.material[0] = material[0];
+        target.material[1] = material[1];
+        // the target's own version moves on, so anything cached for it goes stale
+        target.version++;
     }
 
     /**
@@ -50,7 +126,17 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        gameBoard = new ChessPiece[8][8];
+        Arrays.fill(pieceBoards, 0L);
+        Arrays.fill(colorBoards, 0L);
+        Arrays.fill(squares, (byte) 0);
+        occupied = 0L;
+        key = 0L;
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        material[0] = 0;
+        material[1] = 0;
+        version++;
         // place all pieces
         // pawns first
         for (int i = 1; i < 9; i++) {
@@ -79,10 +165,246 @@ public class ChessBoard {
         addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
     }
 
+    /**
+     * @return 64-bit Zobrist key of the pieces on the board, which doesn't
+     * include whose turn it is
+     */
+    public long zobristKey() {
+        return key;
+    }
+
+    /**
+     * @return a number that changes every time a piece is added, removed or
+     * moved, including by addPiece and resetBoard, so anything computed from
+     * the board can be cached until the version changes
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the middlegame score of the pieces on the board from white's
+     * point of view, as totalled from PieceSquareTables
+     */
+    public int middlegameScore() {
+        return middlegame;
+    }
+
+    /**
+     * @return the endgame score of the pieces on the board from white's
+     * point of view, as totalled from PieceSquareTables
+     */
+    public int endgameScore() {
+        return endgame;
+    }
+
+    /**
+     * @return the game phase of the pieces on the board, from
+     * PieceSquareTables.MAX_PHASE at the start down to 0 with only kings and
+     * pawns left. Extra pieces from promotion can take it past the maximum.
+     */
+    public int phase() {
+        return phase;
+    }
+
+    /**
+     * @return the square of the given team's king, or -1 if it has none. With
+     * more than one king on the board, the lowest numbered square.
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long kings = pieceBoards[pieceCode(color, ChessPiece.PieceType.KING)];
+        return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * @return the number of pieces the given team has on the board
+     */
+    public int pieceCount(ChessGame.TeamColor color) {
+        return Long.bitCount(colorBoards[color.ordinal()]);
+    }
+
+    /**
+     * @return the total material value of the given team's pieces, as
+     * valued by PieceSquareTables.value
+     */
+    public int material(ChessGame.TeamColor color) {
+        return material[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every piece of the given team and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBoards[pieceCode(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given team
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return colorBoards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long occupancy() {
+        return occupied;
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, by looking
+     * outward from the square for knights, kings, pawns and sliding pieces
+     *
+     * @param position the square to look at
+     * @param byColor  the team doing the attacking
+     * @return True if a piece of that team could move to or capture on the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(position.index(), byColor);
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, numbered
+     * 0 (row 1, column 1) to 63 (row 8, column 8)
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square, byColor, occupied);
+    }
+
+    // same as isSquareAttacked, but with sliders blocked by the given occupancy instead of the board's
+    boolean isSquareAttacked(int square, ChessGame.TeamColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        if ((Bitboards.KNIGHT_ATTACKS[square] & pieceBoards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.KING_ATTACKS[square] & pieceBoards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.PAWN_ATTACKS[1 - byColor.ordinal()][square] & attackingPawns(base)) != 0) {
+            return true;
+        }
+        // sliders attack along the rays out to the first blocker
+        long queens = pieceBoards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long bishops = pieceBoards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        if ((Bitboards.bishopAttacks(square, occupied) & bishops) != 0) {
+            return true;
+        }
+        long rooks = pieceBoards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return (Bitboards.rookAttacks(square, occupied) & rooks) != 0;
+    }
+
+    // bitboard of every piece of the given team that attacks a square
+    long attackersTo(int square, ChessGame.TeamColor byColor) {
+        int base = byColor.ordinal() * 6;
+        long queens = pieceBoards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long bishops = pieceBoards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        long rooks = pieceBoards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return (Bitboards.KNIGHT_ATTACKS[square] & pieceBoards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.KING_ATTACKS[square] & pieceBoards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.PAWN_ATTACKS[1 - byColor.ordinal()][square] & attackingPawns(base))
+                | (Bitboards.bishopAttacks(square, occupied) & bishops)
+                | (Bitboards.rookAttacks(square, occupied) & rooks);
+    }
+
+    // a pawn attacks a square if a pawn of the other team standing there would attack the pawn,
+    // leaving out pawns on the back rows since those can't move
+    private long attackingPawns(int base) {
+        return pieceBoards[base + ChessPiece.PieceType.PAWN.ordinal()] & ~(Bitboards.RANK_1 | Bitboards.RANK_8);
+    }
+
+    // copy of the piece code + 1 of every square
+    byte[] squares() {
+        return squares.clone();
+    }
+
+    // piece code at a square, or EMPTY
+    int codeAt(int square) {
+        return squares[square] - 1;
+    }
+
+    // puts a piece on an empty square
+    void setSquare(int square, int code) {
+        long bit = 1L << square;
+        pieceBoards[code] |= bit;
+        colorBoards[code / 6] |= bit;
+        occupied |= bit;
+        squares[square] = (byte) (code + 1);
+        key ^= Zobrist.PIECE_SQUARE[code][square];
+        middlegame += PieceSquareTables.MIDDLEGAME[code][square];
+        endgame += PieceSquareTables.ENDGAME[code][square];
+        phase += PieceSquareTables.PHASE[code];
+        material[code / 6] += PieceSquareTables.MATERIAL[code];
+        version++;
+    }
+
+    // removes whatever is on a square, returning its piece code or EMPTY
+    int clearSquare(int square) {
+        int code = squares[square] - 1;
+        if (code != EMPTY) {
+            long bit = ~(1L << square);
+            pieceBoards[code] &= bit;
+            colorBoards[code / 6] &= bit;
+            occupied &= bit;
+            squares[square] = 0;
+            key ^= Zobrist.PIECE_SQUARE[code][square];
+            middlegame -= PieceSquareTables.MIDDLEGAME[code][square];
+            endgame -= PieceSquareTables.ENDGAME[code][square];
+            phase -= PieceSquareTables.PHASE[code];
+            material[code / 6] -= PieceSquareTables.MATERIAL[code];
+            version++;
+        }
+        return code;
+    }
+
+    // plays a packed move, returning the piece code it captured or EMPTY
+    int makeMove(int move) {
+        int end = PackedMove.to(move);
+        int code = clearSquare(PackedMove.from(move));
+        int captured = clearSquare(end);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        setSquare(end, promotion == null ? code : pieceCode(colorOf(code), promotion));
+        return captured;
+    }
+
+    // takes back a move played by makeMove
+    void unmakeMove(int move, int captured) {
+        int end = PackedMove.to(move);
+        int code = clearSquare(end);
+        if (PackedMove.promotion(move) != null) {
+            code = pieceCode(colorOf(code), ChessPiece.PieceType.PAWN);
+        }
+        setSquare(PackedMove.from(move), code);
+        if (captured != EMPTY) {
+            setSquare(end, captured);
+        }
+    }
+
+    static int pieceCode(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static ChessGame.TeamColor colorOf(int code) {
+        return code < 6 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    static ChessPiece.PieceType typeOf(int code) {
+        return TYPES[code % 6];
+    }
+
     @Override
     public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            builder.append('|');
+            for (int col = 0; col < 8; col++) {
+                int code = codeAt(row * 8 + col);
+                builder.append(code == EMPTY ? ' ' : "KQBNRPkqbnrp".charAt(code)).append('|');
+            }
+            builder.append('\n');
+        }
         return "ChessBoard{" +
-                "gameBoard=" + Arrays.toString(gameBoard) +
+                "gameBoard=\n" + builder +
                 '}';
     }
 
@@ -92,11 +414,11 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(gameBoard, that.gameBoard);
+        return Arrays.equals(squares, that.squares);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(gameBoard);
+        return Long.hashCode(key);
     }
 }
@@ -0,0 +1,144 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a ChessBoard as just its squares, the piece code + 1 of
+ * each square with 0 when empty. Everything else on the board is worked out
+ * from them, so it is rebuilt by putting the pieces back on a new board
+ * rather than stored. Boards saved in the older gameBoard layout, an array
+ * of pieces, are still read.
+ */
+final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    private static final String SQUARES = "squares";
+    private static final String LEGACY_BOARD = "gameBoard";
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(SQUARES).beginArray();
+        for (int square = 0; square < 64; square++) {
+            out.value(board.codeAt(square) + 1);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessBoard board = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals(SQUARES)) {
+                board = readSquares(in);
+            } else if (name.equals(LEGACY_BOARD)) {
+                board = readLegacyBoard(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        if (board == null) {
+            throw new JsonParseException("Board has neither " + SQUARES + " nor " + LEGACY_BOARD);
+        }
+        return board;
+    }
+
+    private static ChessBoard readSquares(JsonReader in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        in.beginArray();
+        int square = 0;
+        while (in.hasNext()) {
+            int value = in.nextInt();
+            if (square >= 64 || value < 0 || value > 12) {
+                throw new JsonParseException("Bad square " + square + ": " + value);
+            }
+            if (value != 0) {
+                board.setSquare(square, value - 1);
+            }
+            square++;
+        }
+        in.endArray();
+        if (square != 64) {
+            throw new JsonParseException("Expected 64 squares, got " + square);
+        }
+        return board;
+    }
+
+    // boards saved before the bitboards were an 8x8 array of pieces indexed by
+    // column then row, with null for an empty square
+    private static ChessBoard readLegacyBoard(JsonReader in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        in.beginArray();
+        int col = 0;
+        while (in.hasNext()) {
+            in.beginArray();
+            int row = 0;
+            while (in.hasNext()) {
+                if (col >= 8 || row >= 8) {
+                    throw new JsonParseException("Board is larger than 8x8");
+                }
+                ChessPiece piece = readLegacyPiece(in);
+                if (piece != null) {
+                    board.setSquare(row * 8 + col, ChessBoard.pieceCode(piece.getTeamColor(), piece.getPieceType()));
+                }
+                row++;
+            }
+            in.endArray();
+            if (row != 8) {
+                throw new JsonParseException("Expected 8 rows in column " + (col + 1) + ", got " + row);
+            }
+            col++;
+        }
+        in.endArray();
+        if (col != 8) {
+            throw new JsonParseException("Expected 8 columns, got " + col);
+        }
+        return board;
+    }
+
+    private static ChessPiece readLegacyPiece(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            try {
+                if (name.equals("pieceColor")) {
+                    color = ChessGame.TeamColor.valueOf(in.nextString());
+                } else if (name.equals("type")) {
+                    type = ChessPiece.PieceType.valueOf(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Bad piece " + name, e);
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new JsonParseException("Piece is missing its color or type");
+        }
+        return ChessPiece.of(color, type);
+    }
+}
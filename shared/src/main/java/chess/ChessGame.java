@@ -1,8 +1,12 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -11,17 +15,58 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGameAdapterFactory.class)
 public class ChessGame {
 
     private TeamColor teamTurn;
     private ChessBoard board;
 
+    // legal moves and status of each team, indexed by team color ordinal,
+    // remembered for the board and board version they were worked out on
+    private final transient MoveList[] cachedMoves = {new MoveList(), new MoveList()};
+    private final transient boolean[] movesCached = new boolean[2];
+    private final transient GameStatus[] cachedStatus = new GameStatus[2];
+    // 0 when not worked out yet, 1 when not in check, 2 when in check
+    private final transient byte[] cachedCheck = new byte[2];
+    private final transient ChessBoard[] cachedBoard = new ChessBoard[2];
+    private final transient long[] cachedVersion = new long[2];
+    // scratch space for encoding the position to look it up in the shared cache
+    private final transient byte[] encodedPosition = new byte[BoardCodec.GAME_BYTES];
+    // reusable lazy generator for status checks, which can stop at the first legal move
+    private final transient LegalMoveIterator moveIterator = new LegalMoveIterator();
+
+    // one entry per move played by doMove: the packed move in the low 32 bits
+    // and the captured piece code + 1 above it, with the position key from
+    // before the move at the same index of undoKeys
+    private transient long[] undoStack = new long[64];
+    private transient long[] undoKeys = new long[64];
+    private transient int undoSize;
+
+    // the position as of the last published change, for readers on other threads;
+    // only the thread playing the game publishes
+    private transient volatile BoardSnapshot snapshot;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         setTeamTurn(TeamColor.WHITE);
     }
 
+    // takes the board as is rather than setting up a starting board first
+    private ChessGame(ChessBoard board, TeamColor teamTurn) {
+        this.board = board;
+        this.teamTurn = teamTurn;
+        publishSnapshot();
+    }
+
+    /**
+     * @return a separate game with a copy of this game's board and the same
+     * team to move, without the moves played to get here
+     */
+    public ChessGame copy() {
+        return new ChessGame(board.copy(), teamTurn);
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -36,6 +81,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         teamTurn = team;
+        publishSnapshot();
     }
 
     /**
@@ -53,6 +99,16 @@ public class ChessGame {
         }
     }
 
+    /**
+     * Enum identifying where a game stands for the team whose turn it is
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -62,28 +118,148 @@ public class ChessGame {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         // find what piece is at startPosition
-        ChessPiece piece = board.getPiece(startPosition);
+        int square = startPosition.index();
+        ChessPiece piece = board.pieceAt(square);
         // throw an error if there isn't a piece there
         if (piece == null) {
             return null;
         }
-        HashSet<ChessMove> possible = (HashSet<ChessMove>) piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> moves = new HashSet<>();
-        // iterate through possible, for all that are valid and don't leave you in check, add them to moves
-        for (ChessMove move : possible) { // somehow this works as a for loop
-            // professor suggests making new board, then making move on that board. Check for check, then toss the board.
-            // ChessBoard temp = board.clone();
-            ChessPiece temp = board.getPiece(move.getEndPosition());
-            board.addPiece(startPosition, null);
-            board.addPiece(move.getEndPosition(), piece);
-            if (!isInCheck(piece.getTeamColor())) {
+        MoveList moves = cachedMoves(piece.getTeamColor());
+        Collection<ChessMove> valid = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.from(moves.get(i)) == square) {
+                valid.add(PackedMove.toChessMove(moves.get(i)));
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Adds the valid moves for the piece on the given square to a move list,
+     * without allocating. Does nothing if the square is empty.
+     *
+     * @param square the square of the piece to get valid moves for
+     * @param moves  the list to add the packed moves to
+     */
+    public void validMoves(int square, MoveList moves) {
+        int code = board.codeAt(square);
+        if (code == ChessBoard.EMPTY) {
+            return;
+        }
+        MoveList cached = cachedMoves(ChessBoard.colorOf(code));
+        for (int i = 0; i < cached.size(); i++) {
+            if (PackedMove.from(cached.get(i)) == square) {
+                moves.add(cached.get(i));
+            }
+        }
+    }
+
+    /**
+     * Gets every valid move for a team in one pass over the board, grouped
+     * by the square each move starts from. Pieces with no valid moves are
+     * left out.
+     *
+     * @param teamColor the team to get valid moves for
+     * @return the valid moves of each of the team's pieces that can move
+     */
+    public Map<ChessPosition, Collection<ChessMove>> legalMoves(TeamColor teamColor) {
+        MoveList moves = cachedMoves(teamColor);
+        Map<ChessPosition, Collection<ChessMove>> byOrigin = new HashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            ChessMove move = PackedMove.toChessMove(moves.get(i));
+            byOrigin.computeIfAbsent(move.getStartPosition(), origin -> new HashSet<>()).add(move);
+        }
+        return byOrigin;
+    }
+
+    /**
+     * Adds every valid move for a team to a move list, without allocating.
+     * The moves of each piece are next to each other in the list.
+     *
+     * @param teamColor the team to get valid moves for
+     * @param moves     the list to add the packed moves to
+     */
+    public void legalMoves(TeamColor teamColor, MoveList moves) {
+        MoveList cached = cachedMoves(teamColor);
+        for (int i = 0; i < cached.size(); i++) {
+            moves.add(cached.get(i));
+        }
+    }
+
+    // the team's legal moves, worked out once per board version, and taken
+    // from the shared cache when another game has already been here
+    private MoveList cachedMoves(TeamColor teamColor) {
+        int team = validateCache(teamColor);
+        MoveList moves = cachedMoves[team];
+        if (movesCached[team]) {
+            return moves;
+        }
+        moves.clear();
+        LegalMoveCache shared = LegalMoveCache.shared();
+        long key = teamColor == TeamColor.BLACK ? board.zobristKey() ^ Zobrist.BLACK_TO_MOVE : board.zobristKey();
+        BoardCodec.encodeInto(board, teamColor, encodedPosition);
+        LegalMoveCache.Entry entry = shared.get(key, encodedPosition);
+        if (entry != null) {
+            for (int move : entry.moves()) {
                 moves.add(move);
             }
-            board.addPiece(move.getEndPosition(), temp);
-            board.addPiece(startPosition, piece);
+            cachedStatus[team] = entry.status();
+            cachedCheck[team] = (byte) (entry.status() == GameStatus.CHECK || entry.status() == GameStatus.CHECKMATE ? 2 : 1);
+        } else {
+            MoveGenerator.legalMoves(board, teamColor, moves);
+            GameStatus status = status(isInCheck(teamColor), !moves.isEmpty());
+            cachedStatus[team] = status;
+            shared.put(key, encodedPosition.clone(), moves.toArray(), status);
         }
+        movesCached[team] = true;
         return moves;
-        // throw new RuntimeException("Not implemented");
+    }
+
+    // forgets what was worked out for the team if the board has changed since, returning the team's index
+    private int validateCache(TeamColor teamColor) {
+        int team = teamColor.ordinal();
+        if (cachedBoard[team] != board || cachedVersion[team] != board.version()) {
+            cachedBoard[team] = board;
+            cachedVersion[team] = board.version();
+            movesCached[team] = false;
+            cachedStatus[team] = null;
+            cachedCheck[team] = 0;
+        }
+        return team;
+    }
+
+    /**
+     * Plays a packed move on the board without checking that it is legal,
+     * and passes the turn to the other team. The move can be taken back
+     * with undoMove.
+     *
+     * @param move the packed move to play
+     */
+    public void doMove(int move) {
+        long key = positionKey();
+        int captured = board.makeMove(move);
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+        }
+        undoKeys[undoSize] = key;
+        undoStack[undoSize++] = ((long) (captured + 1) << 32) | (move & 0xFFFFFFFFL);
+        teamTurn = MoveGenerator.other(teamTurn);
+    }
+
+    /**
+     * Takes back the last move played by doMove or makeMove
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        long entry = undoStack[--undoSize];
+        board.unmakeMove((int) entry, (int) (entry >>> 32) - 1);
+        teamTurn = MoveGenerator.other(teamTurn);
+        assert positionKey() == undoKeys[undoSize] : "position key not restored by undoMove";
     }
 
     /**
@@ -106,40 +282,83 @@ public class ChessGame {
         if (!availableMoves.contains(move)) {
             throw new InvalidMoveException("Not a legal move");
         }
-        // move piece
-        board.addPiece(move.getEndPosition(), board.getPiece(move.getStartPosition()));
-        board.addPiece(move.getStartPosition(), null);
-        // if pawn, check for promotion
-        if (move.getPromotionPiece() != null) {
-            // is pawn, set promotion
-            ChessPiece promPiece = new ChessPiece(getTeamTurn(), move.getPromotionPiece());
-            board.addPiece(move.getEndPosition(), promPiece);
+        // move piece, promoting it if needed, and switch team turn
+        doMove(PackedMove.of(move));
+        publishSnapshot();
+    }
+
+    /**
+     * Gets an immutable copy of the position as of the last move, setBoard,
+     * setTeamTurn, publishSnapshot or loading the game with Gson. Safe to
+     * call from any thread while the game is being played, since it only
+     * reads what the playing thread has published.
+     *
+     * @return the latest published snapshot
+     */
+    public BoardSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot of the current position. Only needed after
+     * changing the board directly or playing moves with doMove and
+     * undoMove, which leave the snapshot alone so searches don't pay for it.
+     */
+    public void publishSnapshot() {
+        if (board != null && teamTurn != null) {
+            snapshot = new BoardSnapshot(board, teamTurn, positionKey());
         }
-        // switch team turn
-        if (getTeamTurn() == TeamColor.WHITE) {
-            setTeamTurn(TeamColor.BLACK);
+    }
+
+    /**
+     * Determines if the given team has at least one legal move, stopping at
+     * the first one found
+     *
+     * @param teamColor which team to look for a move for
+     * @return True if the team can move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        int team = validateCache(teamColor);
+        if (movesCached[team]) {
+            return !cachedMoves[team].isEmpty();
         }
-        else {
-            setTeamTurn(TeamColor.WHITE);
+        if (cachedStatus[team] == null) {
+            moveIterator.reset(board, teamColor);
+            cachedStatus[team] = status(isInCheck(teamColor), moveIterator.next() != LegalMoveIterator.NONE);
         }
+        return cachedStatus[team] == GameStatus.IN_PROGRESS || cachedStatus[team] == GameStatus.CHECK;
     }
 
-    private boolean canMove(TeamColor teamColor) {
-        for (int x = 1; x < 9; x++) {
-            for (int y = 1; y < 9; y++) {
-                // if piece has valid move and is correct color, return false
-                ChessPosition temp = new ChessPosition(x, y);
-                ChessPiece piece = board.getPiece(temp);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(temp);
-                    if (moves != null && !moves.isEmpty()) {
-                        // there is a move available, so can't be in stalemate
-                        return false;
-                    }
-                }
-            }
+    private static GameStatus status(boolean inCheck, boolean canMove) {
+        if (canMove) {
+            return inCheck ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
+        }
+        return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+    }
+
+    /**
+     * Works out check, checkmate and stalemate for the team whose turn it is
+     * in one pass
+     *
+     * @return the status of the game for the team to move
+     */
+    public GameStatus gameStatus() {
+        return gameStatus(teamTurn);
+    }
+
+    /**
+     * Works out check, checkmate and stalemate for the given team in one pass
+     *
+     * @param teamColor which team to get the status of
+     * @return the status of the game for that team
+     */
+    public GameStatus gameStatus(TeamColor teamColor) {
+        int team = validateCache(teamColor);
+        if (cachedStatus[team] == null) {
+            // fills in cachedStatus as a side effect
+            hasAnyLegalMove(teamColor);
         }
-        return true;
+        return cachedStatus[team];
     }
 
     /**
@@ -149,46 +368,14 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        // find king
-        ChessPosition king = null;
-        for (int x = 1; x < 9 && king == null; x++) {
-            for (int y = 1; y < 9 && king == null; y++) {
-                ChessPosition temp = new ChessPosition(x, y);
-                if (board.getPiece(temp) != null) {
-                    if ((board.getPiece(temp).getTeamColor() == teamColor) && (board.getPiece(temp).getPieceType() == ChessPiece.PieceType.KING)) {
-                        king = temp;
-                    }
-                }
-            }
-        }
-        // ChessPosition king = new ChessPosition(x, y);
-
-        // look through all enemy pieces
-        for (int x = 1; x < 9; x++) {
-            for (int y = 1; y < 9; y++) {
-                // check for piece at position and verify it isn't same color
-                ChessPiece temp = board.getPiece(new ChessPosition(x, y));
-                if (temp != null && temp.getTeamColor() != teamColor) {
-                    // get all moves
-                    Collection<ChessMove> moves = temp.pieceMoves(board, new ChessPosition(x, y));
-                    // iterate through moves, if any ends on position "king" return true
-                    if (endsOnKing(moves, king)) {
-                        return true;
-                    }
-                }
-            }
+        int team = validateCache(teamColor);
+        if (cachedCheck[team] == 0) {
+            // look outward from the king for enemy pieces that attack it
+            int king = board.kingSquare(teamColor);
+            boolean inCheck = king >= 0 && board.isSquareAttacked(king, MoveGenerator.other(teamColor));
+            cachedCheck[team] = (byte) (inCheck ? 2 : 1);
         }
-        return false;
-        // throw new RuntimeException("Not implemented");
-    }
-
-    private boolean endsOnKing (Collection<ChessMove> moves, ChessPosition king) {
-        for (ChessMove move : moves) {
-            if (move.getEndPosition().equals(king)) {
-                return true;
-            }
-        }
-        return false;
+        return cachedCheck[team] == 2;
     }
 
     /**
@@ -199,10 +386,7 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        return canMove(teamColor);
+        return gameStatus(teamColor) == GameStatus.STALEMATE;
     }
 
     /**
@@ -212,13 +396,19 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor){
-        // return isInCheck(teamColor) && isInStalemate(teamColor);
+        return gameStatus(teamColor) == GameStatus.CHECKMATE;
+    }
 
-        // copy and paste stalemate code, with condition that is in check first instead of not in check
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        return canMove(teamColor);
+    /**
+     * Gets a 64-bit Zobrist key for the current position, covering the
+     * pieces on the board and whose turn it is. Equal positions always have
+     * equal keys, so it can be used to look positions up in caches.
+     *
+     * @return the position key
+     */
+    public long positionKey() {
+        long key = board.zobristKey();
+        return teamTurn == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
     }
 
     /**
@@ -228,6 +418,8 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        undoSize = 0;
+        publishSnapshot();
     }
 
     /**
@@ -258,6 +450,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(positionKey());
     }
 }
@@ -0,0 +1,43 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a ChessGame field by field as Gson normally would, then
+ * publishes a snapshot of the loaded position. Gson sets the board and turn
+ * by reflection after the constructor has published the starting position,
+ * so without this the game would hand readers a stale snapshot.
+ */
+final class ChessGameAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessGame.class) {
+            return null;
+        }
+        TypeAdapter<ChessGame> fields = (TypeAdapter<ChessGame>) gson.getDelegateAdapter(this, type);
+        return (TypeAdapter<T>) new TypeAdapter<ChessGame>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                fields.write(out, game);
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                ChessGame game = fields.read(in);
+                if (game != null) {
+                    game.publishSnapshot();
+                }
+                return game;
+            }
+        };
+    }
+}
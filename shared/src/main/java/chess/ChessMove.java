@@ -10,10 +10,28 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    // shared instances of every move between two squares with every promotion
+    // choice, indexed by the move's PackedMove bits without flags
+    private static final ChessMove[] MOVES = new ChessMove[PackedMove.MOVE_BITS + 1];
+
+    static {
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                int move = PackedMove.of(from, to, null, 0);
+                MOVES[move] = new ChessMove(ChessPosition.SQUARES[from], ChessPosition.SQUARES[to], null);
+                for (ChessPiece.PieceType type : types) {
+                    move = PackedMove.of(from, to, type, 0);
+                    MOVES[move] = new ChessMove(ChessPosition.SQUARES[from], ChessPosition.SQUARES[to], type);
+                }
+            }
+        }
+    }
+
     // make private variables for all the below items
-    private ChessPiece.PieceType promotionPiece;
-    private ChessPosition startPosition;
-    private ChessPosition endPosition;
+    private final ChessPiece.PieceType promotionPiece;
+    private final ChessPosition startPosition;
+    private final ChessPosition endPosition;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
@@ -22,6 +40,28 @@ public class ChessMove {
         this.endPosition = endPosition;
     }
 
+    /**
+     * Gets the shared instance of a move, so moves between on-board
+     * positions never have to be allocated. Moves to or from a position off
+     * the board get a new object.
+     *
+     * @return the move from start to end with the given promotion
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        int start = startPosition.index();
+        int end = endPosition.index();
+        if (start < 0 || end < 0) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return MOVES[PackedMove.of(start, end, promotionPiece, 0)];
+    }
+
+    // shared instance of a packed move, ignoring its flags
+    static ChessMove of(int packedMove) {
+        return MOVES[packedMove & PackedMove.MOVE_BITS];
+    }
+
     /**
      * @return ChessPosition of starting location
      */
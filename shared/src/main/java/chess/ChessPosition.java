@@ -10,13 +10,60 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
-    private int row, col;
+    // shared instances of the 64 positions on the board, indexed by square
+    static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    private final int row, col;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance of a position, so on-board positions never
+     * have to be allocated. Positions off the board get a new object.
+     *
+     * @return the position at the given row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + col - 1];
+    }
+
+    /**
+     * Gets the shared position of a square number, for code that works with
+     * squares rather than rows and columns
+     *
+     * @param index the square, 0 (row 1, column 1) to 63 (row 8, column 8)
+     * @return the position of that square
+     */
+    public static ChessPosition ofIndex(int index) {
+        if (index < 0 || index > 63) {
+            throw new IllegalArgumentException("Square index must be between 0 and 63: " + index);
+        }
+        return SQUARES[index];
+    }
+
+    /**
+     * @return the square number of this position, 0 (row 1, column 1) to 63
+     * (row 8, column 8), or -1 if the position is off the board
+     */
+    public int index() {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return -1;
+        }
+        return (row - 1) * 8 + col - 1;
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,93 @@
+package chess;
+
+/**
+ * Reads and writes games in Forsyth-Edwards Notation, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1}.
+ * <p>
+ * Only the piece placement and side to move are used. These rules have no
+ * castling or en passant, so those fields are skipped when reading and
+ * written as "-" when writing.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * @return a new game with the position described by the FEN string
+     * @throws IllegalArgumentException if the string isn't valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 rows: " + fen);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                int code = PIECE_CHARS.indexOf(c);
+                if (code < 0 || col > 8) {
+                    throw new IllegalArgumentException("Bad FEN row '" + rows[i] + "': " + fen);
+                }
+                board.addPiece(ChessPosition.of(row, col),
+                        ChessPiece.of(ChessBoard.colorOf(code), ChessBoard.typeOf(code)));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Bad FEN row '" + rows[i] + "': " + fen);
+            }
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        if (fields.length > 1 && fields[1].equals("b")) {
+            game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        } else if (fields.length > 1 && !fields[1].equals("w")) {
+            throw new IllegalArgumentException("Bad side to move '" + fields[1] + "': " + fen);
+        } else {
+            game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        }
+        return game;
+    }
+
+    /**
+     * @return the FEN string for the game's position
+     */
+    public static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder builder = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int code = board.codeAt(row * 8 + col);
+                if (code == ChessBoard.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                builder.append(PIECE_CHARS.charAt(code));
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            if (row > 0) {
+                builder.append('/');
+            }
+        }
+        builder.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b" : " w");
+        return builder.append(" - - 0 1").toString();
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+/**
+ * What a team's pieces have to do to keep their king safe in one position:
+ * the squares that answer a check, and the pieces pinned to the king. Worked
+ * out once per position by MoveGenerator and LegalMoveIterator, then used to
+ * mask each piece's moves. Reusable, so the iterator doesn't allocate.
+ */
+final class KingSafety {
+
+    // the king's square, or -1 when the team has no king
+    int king;
+    // squares the pieces other than the king may move to
+    long allowed;
+    // our pieces that are the only thing between our king and an enemy slider
+    long pinned;
+
+    /**
+     * Works out the king, checks and pins for the given team
+     *
+     * @return false if the team has more than one king, which the masks
+     * assume it doesn't, so its moves have to be checked one by one
+     */
+    boolean analyze(ChessBoard board, ChessGame.TeamColor color) {
+        long kings = board.pieces(color, ChessPiece.PieceType.KING);
+        if (Long.bitCount(kings) > 1) {
+            return false;
+        }
+        allowed = ~0L;
+        pinned = 0L;
+        king = -1;
+        if (kings != 0) {
+            king = Long.numberOfTrailingZeros(kings);
+            long checkers = board.attackersTo(king, MoveGenerator.other(color));
+            if (Long.bitCount(checkers) > 1) {
+                // double check, only the king can move
+                allowed = 0L;
+            } else if (checkers != 0) {
+                // capture the checking piece or block it
+                allowed = checkers | Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+            }
+            pinned = pinnedPieces(board, king, color);
+        }
+        return true;
+    }
+
+    // squares the piece on the given square, which isn't the king, may move to
+    long mask(int square) {
+        if ((pinned & (1L << square)) != 0) {
+            // a pinned piece can only move along the line between its king and the pinning piece
+            return allowed & Bitboards.LINE[king][square];
+        }
+        return allowed;
+    }
+
+    private static long pinnedPieces(ChessBoard board, int king, ChessGame.TeamColor color) {
+        ChessGame.TeamColor enemy = MoveGenerator.other(color);
+        long enemies = board.occupancy(enemy);
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long rooks = board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens;
+        long bishops = board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens;
+        // sliders that would attack the king if none of our pieces were in the way
+        long snipers = (Bitboards.rookAttacks(king, enemies) & rooks)
+                | (Bitboards.bishopAttacks(king, enemies) & bishops);
+        long pinned = 0L;
+        while (snipers != 0) {
+            long between = Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(snipers)] & board.occupancy();
+            if (Long.bitCount(between) == 1) {
+                pinned |= between & board.occupancy(color);
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,236 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache from position key to the legal moves and status of the
+ * team to move, shared by every game in the process so games passing through
+ * the same positions (openings, mostly) only generate them once.
+ * <p>
+ * The cache is an array of buckets of eight slots. A key can only live in
+ * its own bucket, and each bucket evicts by CLOCK: a hit marks its entry as
+ * referenced, and an insert into a full bucket sweeps it from the bucket's
+ * hand, clearing marks until it finds an unmarked entry to replace. Entries
+ * are immutable and slots are swapped in with compare-and-set, so lookups
+ * never lock and inserts only ever lose a race, in which case the moves just
+ * aren't cached. An insert that would take the cache past its memory cap is
+ * skipped too.
+ * <p>
+ * The key only picks the bucket and filters out most non-matches quickly.
+ * Every entry also keeps the position it was made for, as BoardCodec's game
+ * encoding, and a lookup only matches when that is identical. Zobrist keys
+ * are linear in the pieces and their seed is public, so two positions with
+ * the same key can be built on purpose, and a match on the key alone could
+ * hand one position's moves to a player in the other.
+ */
+public class LegalMoveCache {
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int WAYS = 8;
+    // rough size of an entry with a typical middlegame's worth of moves, for sizing the slot array
+    private static final int TYPICAL_ENTRY_BYTES = 256;
+    // object header, key, references, status and mark, the moves array's header,
+    // and the position array with its header
+    private static final int ENTRY_OVERHEAD_BYTES = 64 + 16 + BoardCodec.GAME_BYTES;
+
+    private static final LegalMoveCache SHARED =
+            new LegalMoveCache(Integer.getInteger("chess.legalMoveCacheMegabytes", DEFAULT_MEGABYTES));
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final byte[] hands;
+    private final int bucketMask;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param megabytes the most memory the cached moves may take up, or 0 to
+     *                  cache nothing
+     */
+    public LegalMoveCache(int megabytes) {
+        if (megabytes < 0) {
+            throw new IllegalArgumentException("Cache size can't be negative: " + megabytes);
+        }
+        maxBytes = (long) megabytes * 1024 * 1024;
+        long wanted = Math.max(1, maxBytes / TYPICAL_ENTRY_BYTES / WAYS);
+        int buckets = (int) Math.min(Long.highestOneBit(wanted), 1 << 24);
+        bucketMask = buckets - 1;
+        slots = new AtomicReferenceArray<>(buckets * WAYS);
+        hands = new byte[buckets];
+    }
+
+    /**
+     * @return the cache shared by every game, sized by the
+     * chess.legalMoveCacheMegabytes system property, which can be 0 to turn it off
+     */
+    public static LegalMoveCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * The legal moves and status of the team to move in a position
+     */
+    public static final class Entry {
+        private final long key;
+        private final byte[] position;
+        private final int[] moves;
+        private final ChessGame.GameStatus status;
+        // set on every hit and cleared by the CLOCK hand; races only blur the eviction order
+        private boolean referenced;
+
+        private Entry(long key, byte[] position, int[] moves, ChessGame.GameStatus status) {
+            this.key = key;
+            this.position = position;
+            this.moves = moves;
+            this.status = status;
+        }
+
+        private boolean matches(long key, byte[] position) {
+            return this.key == key && Arrays.equals(this.position, position);
+        }
+
+        public long key() {
+            return key;
+        }
+
+        /**
+         * @return the packed legal moves; callers must not change the array
+         */
+        public int[] moves() {
+            return moves;
+        }
+
+        public ChessGame.GameStatus status() {
+            return status;
+        }
+
+        private long bytes() {
+            return ENTRY_OVERHEAD_BYTES + 4L * moves.length;
+        }
+    }
+
+    /**
+     * @param key      the position key, which has to include the team to move
+     * @param position the position as encoded by BoardCodec.encode(ChessGame)
+     * @return the cached entry for the position, or null if it isn't cached
+     */
+    public Entry get(long key, byte[] position) {
+        int bucket = bucket(key);
+        for (int i = bucket; i < bucket + WAYS; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.matches(key, position)) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                hits.increment();
+                return entry;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the legal moves and status of a position, if there's room
+     *
+     * @param key      the position key, which has to include the team to move
+     * @param position the position as encoded by BoardCodec.encode(ChessGame),
+     *                 which the cache keeps and which must not be changed afterwards
+     * @param moves    the packed legal moves, which the cache keeps and which
+     *                 must not be changed afterwards
+     * @param status   the status of the game for the team to move
+     */
+    public void put(long key, byte[] position, int[] moves, ChessGame.GameStatus status) {
+        if (position.length != BoardCodec.GAME_BYTES) {
+            throw new IllegalArgumentException("Position must be " + BoardCodec.GAME_BYTES + " bytes: " + position.length);
+        }
+        Entry entry = new Entry(key, position, moves, status);
+        int bucket = bucket(key);
+        int index = bucket / WAYS;
+        // sweep at most twice round, since the first lap may only clear marks
+        for (int step = 0; step < WAYS * 2; step++) {
+            int way = hands[index] & (WAYS - 1);
+            int slot = bucket + way;
+            Entry old = slots.get(slot);
+            if (old != null && !old.matches(key, position) && old.referenced) {
+                old.referenced = false;
+                hands[index] = (byte) (way + 1);
+                continue;
+            }
+            long change = entry.bytes() - (old == null ? 0 : old.bytes());
+            if (bytes.get() + change > maxBytes) {
+                return;
+            }
+            if (slots.compareAndSet(slot, old, entry)) {
+                bytes.addAndGet(change);
+                hands[index] = (byte) (way + 1);
+                if (old != null && !old.matches(key, position)) {
+                    evictions.increment();
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Empties the cache, keeping its statistics
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            Entry old = slots.getAndSet(i, null);
+            if (old != null) {
+                bytes.addAndGet(-old.bytes());
+            }
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that found their position, or 0 before any lookups
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return roughly how much memory the cached entries take up
+     */
+    public long bytes() {
+        return bytes.get();
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    // index of the first slot of the key's bucket
+    private int bucket(long key) {
+        return ((int) (key >>> 32) & bucketMask) * WAYS;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LegalMoveCache{hits=%d, misses=%d, evictions=%d, bytes=%d/%d}",
+                hits(), misses(), evictions(), bytes(), maxBytes);
+    }
+}
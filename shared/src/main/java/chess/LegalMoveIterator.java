@@ -0,0 +1,153 @@
+package chess;
+
+/**
+ * Produces a team's legal moves one at a time instead of all at once, so a
+ * caller that only needs the first few moves, or only needs to know whether
+ * there are any, doesn't pay for the rest.
+ * <p>
+ * Moves come in two stages: every capture, then every quiet move, each
+ * stage going piece by piece. The checkers and pins are worked out once in
+ * reset, and each piece's moves are worked out when the iterator reaches
+ * it. An iterator can be reset and reused without allocating.
+ */
+public class LegalMoveIterator {
+
+    /**
+     * Returned by next once the moves run out. No legal move packs to 0,
+     * since that would be a move from a square to itself.
+     */
+    public static final int NONE = 0;
+
+    private static final int CAPTURES = 0;
+    private static final int QUIETS = 1;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+    };
+    private static final long BACK_ROWS = Bitboards.RANK_1 | Bitboards.RANK_8;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor color;
+    private ChessGame.TeamColor enemy;
+    private long own;
+    private long enemies;
+    private long occupied;
+    private final KingSafety safety = new KingSafety();
+    private int king;
+
+    private int stage;
+    // pieces still to be reached in this stage
+    private long pieces;
+    // the piece being worked through and its targets left in this stage
+    private int from;
+    private boolean pawn;
+    private long targets;
+    // target square whose promotions are being handed out, or -1
+    private int promotionSquare = -1;
+    private int promotion;
+
+    // boards with more than one king of a team are generated all at once, see MoveGenerator
+    private final MoveList fallback = new MoveList();
+    private boolean useFallback;
+    private int fallbackIndex;
+
+    /**
+     * Starts over on the legal moves of the given team
+     */
+    public void reset(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        enemy = MoveGenerator.other(color);
+        own = board.occupancy(color);
+        enemies = board.occupancy(enemy);
+        occupied = board.occupancy();
+        stage = CAPTURES;
+        pieces = own;
+        targets = 0L;
+        promotionSquare = -1;
+        useFallback = !safety.analyze(board, color);
+        if (useFallback) {
+            fallback.clear();
+            fallbackIndex = 0;
+            MoveGenerator.legalMoves(board, color, own, fallback);
+            return;
+        }
+        king = safety.king;
+    }
+
+    /**
+     * @return the next legal packed move, or NONE once there are no more
+     */
+    public int next() {
+        if (useFallback) {
+            return fallbackIndex < fallback.size() ? fallback.get(fallbackIndex++) : NONE;
+        }
+        int flags = stage == CAPTURES ? PackedMove.CAPTURE : 0;
+        while (true) {
+            if (promotionSquare >= 0) {
+                int move = PackedMove.of(from, promotionSquare, PROMOTIONS[promotion], flags);
+                if (++promotion == PROMOTIONS.length) {
+                    promotionSquare = -1;
+                }
+                return move;
+            }
+            if (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (from == king && board.isSquareAttacked(to, enemy, occupied & ~(1L << king))) {
+                    continue;
+                }
+                if (pawn && (BACK_ROWS & (1L << to)) != 0) {
+                    promotionSquare = to;
+                    promotion = 0;
+                    continue;
+                }
+                if (pawn && Math.abs(to - from) == 16) {
+                    return PackedMove.of(from, to, null, PackedMove.DOUBLE_PUSH);
+                }
+                return PackedMove.of(from, to, null, flags);
+            }
+            if (pieces != 0) {
+                from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                targets = targets(from);
+                continue;
+            }
+            if (stage == CAPTURES) {
+                stage = QUIETS;
+                flags = 0;
+                pieces = own;
+                continue;
+            }
+            return NONE;
+        }
+    }
+
+    // squares the piece on the given square can legally move to in this stage,
+    // not yet counting the squares the enemy attacks for the king
+    private long targets(int square) {
+        long stageTargets = stage == CAPTURES ? enemies : ~occupied;
+        pawn = false;
+        if (square == king) {
+            return Bitboards.KING_ATTACKS[square] & stageTargets;
+        }
+        long mask = safety.mask(square);
+        if (mask == 0) {
+            return 0L;
+        }
+        ChessPiece.PieceType type = ChessBoard.typeOf(board.codeAt(square));
+        if (type != ChessPiece.PieceType.PAWN) {
+            return MoveGenerator.attacks(type, square, occupied) & stageTargets & mask;
+        }
+        pawn = true;
+        int row = square / 8;
+        if (row == 0 || row == 7) {
+            return 0L;
+        }
+        if (stage == CAPTURES) {
+            return Bitboards.PAWN_ATTACKS[color.ordinal()][square] & enemies & mask;
+        }
+        return MoveGenerator.pawnPushes(square, color, ~occupied) & mask;
+    }
+}
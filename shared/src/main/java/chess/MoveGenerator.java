@@ -0,0 +1,216 @@
+package chess;
+
+/**
+ * Generates moves into a MoveList as packed ints, so callers that reuse
+ * their list don't allocate anything.
+ * <p>
+ * Legal moves are generated directly rather than by trying each move and
+ * testing for check: the pieces giving check and the pieces pinned to the
+ * king are found once per position, and every other move is masked down to
+ * the squares that keep the king safe.
+ */
+public final class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every move the piece on the given square could make, not taking
+     * into account moves that leave the king in danger. Does nothing if the
+     * square is empty.
+     */
+    public static void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        int code = board.codeAt(square);
+        if (code != ChessBoard.EMPTY) {
+            pieceMoves(board, square, ChessBoard.colorOf(code), ChessBoard.typeOf(code), moves);
+        }
+    }
+
+    /**
+     * Adds every move a piece of the given team and type could make from the
+     * given square, not taking into account moves that leave the king in danger
+     */
+    public static void pieceMoves(ChessBoard board, int square, ChessGame.TeamColor color,
+                                  ChessPiece.PieceType type, MoveList moves) {
+        if (type == ChessPiece.PieceType.PAWN) {
+            pawnMoves(board, square, color, ~0L, moves);
+        } else {
+            // anything not holding one of our own pieces can be moved to
+            long targets = attacks(type, square, board.occupancy()) & ~board.occupancy(color);
+            addMoves(board, square, targets, moves);
+        }
+    }
+
+    /**
+     * Adds every legal move for the given team
+     */
+    public static void legalMoves(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        legalMoves(board, color, board.occupancy(color), moves);
+    }
+
+    /**
+     * Adds every legal move for the piece on the given square. Does nothing
+     * if the square is empty.
+     */
+    public static void legalMoves(ChessBoard board, int square, MoveList moves) {
+        int code = board.codeAt(square);
+        if (code != ChessBoard.EMPTY) {
+            legalMoves(board, ChessBoard.colorOf(code), 1L << square, moves);
+        }
+    }
+
+    // adds the legal moves of the given team's pieces that are set in from
+    static void legalMoves(ChessBoard board, ChessGame.TeamColor color, long from, MoveList moves) {
+        KingSafety safety = new KingSafety();
+        if (!safety.analyze(board, color)) {
+            // the masks assume a single king, so boards set up with more are checked move by move
+            tryMoves(board, color, from, moves);
+            return;
+        }
+        ChessGame.TeamColor enemy = other(color);
+        long own = board.occupancy(color);
+        long occupied = board.occupancy();
+        int king = safety.king;
+
+        long pieces = own & from;
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (square == king) {
+                kingMoves(board, king, enemy, own, moves);
+                continue;
+            }
+            long mask = safety.mask(square);
+            if (mask == 0) {
+                continue;
+            }
+            ChessPiece.PieceType type = ChessBoard.typeOf(board.codeAt(square));
+            if (type == ChessPiece.PieceType.PAWN) {
+                pawnMoves(board, square, color, mask, moves);
+            } else {
+                addMoves(board, square, attacks(type, square, occupied) & ~own & mask, moves);
+            }
+        }
+    }
+
+    // the king can go to any square the enemy doesn't attack once the king has left its square
+    private static void kingMoves(ChessBoard board, int king, ChessGame.TeamColor enemy, long own, MoveList moves) {
+        long occupied = board.occupancy() & ~(1L << king);
+        long targets = Bitboards.KING_ATTACKS[king] & ~own;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (!board.isSquareAttacked(to, enemy, occupied)) {
+                int flags = (board.occupancy() & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+                moves.add(PackedMove.of(king, to, null, flags));
+            }
+            targets &= targets - 1;
+        }
+    }
+
+    // plays each move on a copy of the board and keeps the ones that don't leave
+    // the team in check; the board itself is only read, so its version stays put
+    // and readers on other threads never see a trial move
+    private static void tryMoves(ChessBoard board, ChessGame.TeamColor color, long from, MoveList moves) {
+        MoveList possible = new MoveList();
+        long pieces = board.occupancy(color) & from;
+        while (pieces != 0) {
+            pieceMoves(board, Long.numberOfTrailingZeros(pieces), possible);
+            pieces &= pieces - 1;
+        }
+        ChessBoard scratch = board.copy();
+        for (int i = 0; i < possible.size(); i++) {
+            int move = possible.get(i);
+            int captured = scratch.makeMove(move);
+            long kings = scratch.pieces(color, ChessPiece.PieceType.KING);
+            if (kings == 0 || !scratch.isSquareAttacked(Long.numberOfTrailingZeros(kings), other(color))) {
+                moves.add(move);
+            }
+            scratch.unmakeMove(move, captured);
+        }
+    }
+
+    // squares a piece other than a pawn attacks from the given square
+    static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KING -> Bitboards.KING_ATTACKS[square];
+            case KNIGHT -> Bitboards.KNIGHT_ATTACKS[square];
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case PAWN -> 0L;
+        };
+    }
+
+    // pawns move toward the other team's back row and promote on reaching it,
+    // only adding moves that end on a square set in mask
+    private static void pawnMoves(ChessBoard board, int square, ChessGame.TeamColor color, long mask,
+                                  MoveList moves) {
+        int row = square / 8;
+        if (row == 0 || row == 7) {
+            // a pawn can't be on the back rows, so it has no moves
+            return;
+        }
+        long enemies = board.occupancy(other(color));
+        long captures = Bitboards.PAWN_ATTACKS[color.ordinal()][square] & enemies & mask;
+        long pushes = pawnPushes(square, color, ~board.occupancy()) & mask;
+        // anything past the square just ahead is a double push
+        long ahead = 1L << (color == ChessGame.TeamColor.WHITE ? square + 8 : square - 8);
+        long doublePush = pushes & ~ahead;
+        pushes &= ahead;
+        long backRows = Bitboards.RANK_1 | Bitboards.RANK_8;
+        addPawnMoves(square, captures & ~backRows, false, PackedMove.CAPTURE, moves);
+        addPawnMoves(square, pushes & ~backRows, false, 0, moves);
+        addPawnMoves(square, captures & backRows, true, PackedMove.CAPTURE, moves);
+        addPawnMoves(square, pushes & backRows, true, 0, moves);
+        addPawnMoves(square, doublePush, false, PackedMove.DOUBLE_PUSH, moves);
+    }
+
+    // squares a pawn on the given square, which isn't on a back row, can push to:
+    // one row forward if that's empty, and two from its starting row if both are
+    static long pawnPushes(int square, ChessGame.TeamColor color, long empty) {
+        int row = square / 8;
+        long pushes;
+        if (color == ChessGame.TeamColor.WHITE) {
+            pushes = (1L << (square + 8)) & empty;
+            if (row == 1 && pushes != 0) {
+                pushes |= (1L << (square + 16)) & empty;
+            }
+        } else {
+            pushes = (1L << (square - 8)) & empty;
+            if (row == 6 && pushes != 0) {
+                pushes |= (1L << (square - 16)) & empty;
+            }
+        }
+        return pushes;
+    }
+
+    private static void addPawnMoves(int from, long targets, boolean promote, int flags, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (promote) {
+                moves.add(PackedMove.of(from, to, ChessPiece.PieceType.ROOK, flags));
+                moves.add(PackedMove.of(from, to, ChessPiece.PieceType.KNIGHT, flags));
+                moves.add(PackedMove.of(from, to, ChessPiece.PieceType.BISHOP, flags));
+                moves.add(PackedMove.of(from, to, ChessPiece.PieceType.QUEEN, flags));
+            } else {
+                moves.add(PackedMove.of(from, to, null, flags));
+            }
+            targets &= targets - 1;
+        }
+    }
+
+    // adds a move from the square to every square set in targets
+    private static void addMoves(ChessBoard board, int from, long targets, MoveList moves) {
+        long occupied = board.occupancy();
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (occupied & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.of(from, to, null, flags));
+            targets &= targets - 1;
+        }
+    }
+
+    static ChessGame.TeamColor other(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
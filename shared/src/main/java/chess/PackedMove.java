@@ -0,0 +1,82 @@
+package chess;
+
+/**
+ * Encodes a move into a single int so moves can be generated and stored
+ * without allocating ChessMove and ChessPosition objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (numbered the way
+ * ChessBoard numbers them), bits 12-14 the promotion piece type ordinal plus
+ * one (0 for no promotion), and the bits above that hold flags.
+ */
+public final class PackedMove {
+
+    public static final int CAPTURE = 1;
+    public static final int DOUBLE_PUSH = 1 << 1;
+
+    // the bits that identify a move, without the flags
+    public static final int MOVE_BITS = (1 << 15) - 1;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | (flags << 15);
+    }
+
+    public static int of(ChessMove move) {
+        return of(move.getStartPosition().index(), move.getEndPosition().index(),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return Type of piece to promote a pawn to, or null if no promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 7;
+        return promotionBits == 0 ? null : TYPES[promotionBits - 1];
+    }
+
+    public static int flags(int move) {
+        return move >>> 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. "e2e4", or "a7a8q" for a promotion
+     */
+    public static String toNotation(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        appendSquare(builder, from(move));
+        appendSquare(builder, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            builder.append("kqbnrp".charAt(promotion.ordinal()));
+        }
+        return builder.toString();
+    }
+
+    private static void appendSquare(StringBuilder builder, int square) {
+        builder.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+    }
+
+    /**
+     * @return the shared ChessMove instance for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(move);
+    }
+}
@@ -0,0 +1,300 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * The counts for well known positions are published, so comparing against
+ * them checks the move generator, and timing the count measures its speed.
+ * <p>
+ * Run from the command line with a FEN string and a depth to print the
+ * count under each root move ("divide"), or with no arguments to check
+ * every reference position. A third argument runs the count on that many
+ * threads, and a fourth caches subtree counts in a table of that many MB.
+ */
+public final class Perft {
+
+    /**
+     * Positions with published perft counts. Only positions and depths whose
+     * counts don't involve castling or en passant are listed, since these
+     * rules have neither.
+     */
+    public enum ReferencePosition {
+        START(Fen.START, 20, 400, 8902, 197281),
+        // from the chessprogramming wiki perft results, position 3
+        ENDGAME_ROOKS("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191),
+        // the rest are from Martin Sedlak's perft test suite
+        DOUBLE_CHECK("8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1", 37, 183, 6559, 23527),
+        // only the deepest count is published for these two
+        PROMOTE_OUT_OF_CHECK("2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 0, 0, 0, 0, 0, 3821001),
+        DISCOVERED_CHECK("8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1", 0, 0, 0, 0, 1004658),
+        PROMOTE_TO_GIVE_CHECK("4k3/1P6/8/8/8/8/K7/8 w - - 0 1", 9, 40, 472, 2661, 38983, 217342),
+        UNDERPROMOTE_TO_CHECK("8/P1k5/K7/8/8/8/8/8 w - - 0 1", 6, 27, 273, 1329, 18135, 92683),
+        SELF_STALEMATE("K1k5/8/P7/8/8/8/8/8 w - - 0 1", 2, 6, 13, 63, 382, 2217),
+        STALEMATE_AND_CHECKMATE("8/k1P5/8/1K6/8/8/8/8 w - - 0 1", 10, 25, 268, 926, 10857, 43261, 567584);
+
+        private final String fen;
+        private final long[] nodes;
+
+        ReferencePosition(String fen, long... nodes) {
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+
+        public String fen() {
+            return fen;
+        }
+
+        /**
+         * @return the deepest depth with a known count
+         */
+        public int maxDepth() {
+            return nodes.length;
+        }
+
+        /**
+         * @return the known node count at the given depth, starting from 1,
+         * or 0 if no count is published for that depth
+         */
+        public long nodes(int depth) {
+            return nodes[depth - 1];
+        }
+
+        public ChessGame game() {
+            return Fen.parse(fen);
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * @return the number of leaf nodes of the legal move tree to the given
+     * depth, with the team whose turn it is moving first
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return perft(game, depth, buffers(depth), null);
+    }
+
+    /**
+     * Same as perft, but looks up and stores subtree counts in the table, so
+     * positions reached by more than one line of moves are only counted once
+     */
+    public static long perft(ChessGame game, int depth, PerftTable table) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return perft(game, depth, buffers(depth), table);
+    }
+
+    /**
+     * @return the perft count to the given depth under each legal root move,
+     * in the order the moves were generated
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        if (depth <= 0) {
+            return counts;
+        }
+        MoveList[] buffers = buffers(depth);
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.doMove(move);
+            counts.put(PackedMove.toChessMove(move), depth == 1 ? 1L : perft(game, depth - 1, buffers, null));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Same as perft, but splits the tree into a task per root move and per
+     * second-ply move and runs them on the common fork/join pool
+     */
+    public static long parallelPerft(ChessGame game, int depth) {
+        return parallelPerft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as perft, but splits the tree into a task per root move and per
+     * second-ply move and runs them on the given pool. Each task works on its
+     * own copy of the game, so the game passed in is never changed.
+     */
+    public static long parallelPerft(ChessGame game, int depth, ForkJoinPool pool) {
+        return parallelPerft(game, depth, pool, null);
+    }
+
+    /**
+     * Same as parallelPerft, with every task sharing the given table of
+     * subtree counts. The table can be null to count without one.
+     */
+    public static long parallelPerft(ChessGame game, int depth, ForkJoinPool pool, PerftTable table) {
+        if (depth <= 1) {
+            return perft(game.copy(), depth);
+        }
+        return pool.invoke(new PerftTask(game, new int[0], depth, table));
+    }
+
+    // counts the subtree under a line of moves from a shared starting position
+    private static class PerftTask extends RecursiveTask<Long> {
+        // tasks are never serialized, ForkJoinTask is just Serializable
+        private static final long serialVersionUID = 1L;
+
+        // plies below the root that are still split into their own tasks
+        private static final int SPLIT_PLIES = 2;
+        // subtrees shallower than this aren't worth a task of their own
+        private static final int MIN_SPLIT_DEPTH = 3;
+
+        private final transient ChessGame root;
+        private final int[] line;
+        private final int depth;
+        private final transient PerftTable table;
+
+        PerftTask(ChessGame root, int[] line, int depth, PerftTable table) {
+            this.root = root;
+            this.line = line;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            ChessGame game = root.copy();
+            for (int move : line) {
+                game.doMove(move);
+            }
+            if (line.length == SPLIT_PLIES || depth < MIN_SPLIT_DEPTH) {
+                return perft(game, depth, buffers(depth), table);
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+            List<PerftTask> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                int[] childLine = Arrays.copyOf(line, line.length + 1);
+                childLine[line.length] = moves.get(i);
+                tasks.add(new PerftTask(root, childLine, depth - 1, table));
+            }
+            invokeAll(tasks);
+            // join in generation order so the sum is always built the same way
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    // one move list per remaining depth, so the search doesn't allocate
+    static MoveList[] buffers(int depth) {
+        MoveList[] buffers = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    static long perft(ChessGame game, int depth, MoveList[] buffers, PerftTable table) {
+        // probe before generating, so a hit skips move generation too; depth 1
+        // is a bulk count that's cheaper to redo than to look up
+        long key = 0;
+        if (table != null && depth > 1) {
+            key = game.positionKey();
+            long cached = table.probe(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        MoveList moves = buffers[depth];
+        moves.clear();
+        MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+        if (depth == 1) {
+            // the moves themselves are the leaves, no need to play them
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, buffers, table);
+            game.undoMove();
+        }
+        if (table != null) {
+            table.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * With no arguments, checks every reference position to its deepest known
+     * count. With a FEN string and a depth, prints the divide for that position.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            boolean passed = true;
+            for (ReferencePosition position : ReferencePosition.values()) {
+                int depth = position.maxDepth();
+                long start = System.nanoTime();
+                long nodes = perft(position.game(), depth);
+                long elapsed = System.nanoTime() - start;
+                boolean matches = nodes == position.nodes(depth);
+                passed &= matches;
+                System.out.printf("%-24s depth %d: %,d nodes (expected %,d) %s, %s%n", position, depth, nodes,
+                        position.nodes(depth), matches ? "ok" : "MISMATCH", rate(nodes, elapsed));
+            }
+            if (!passed) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("usage: Perft [\"<fen>\" <depth> [threads [hash MB]]]");
+            System.exit(2);
+        }
+        ChessGame game = Fen.parse(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        int threads = args.length >= 3 ? Integer.parseInt(args[2]) : 1;
+        PerftTable table = args.length == 4 ? new PerftTable(Integer.parseInt(args[3])) : null;
+        long start = System.nanoTime();
+        Map<ChessMove, Long> counts = parallelDivide(game, depth, Math.max(threads, 1), table);
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+            System.out.println(PackedMove.toNotation(PackedMove.of(entry.getKey())) + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.printf("%nMoves: %d%nNodes: %d%n%s%n", counts.size(), total, rate(total, elapsed));
+    }
+
+    // divide with each root move's count run in parallel
+    private static Map<ChessMove, Long> parallelDivide(ChessGame game, int depth, int threads, PerftTable table) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                game.doMove(move);
+                counts.put(PackedMove.toChessMove(move), parallelPerft(game, depth - 1, pool, table));
+                game.undoMove();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return counts;
+    }
+
+    private static String rate(long nodes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%.3f s, %,.0f nodes/s", seconds, nodes / Math.max(seconds, 1e-9));
+    }
+}
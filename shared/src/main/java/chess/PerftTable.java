@@ -0,0 +1,66 @@
+package chess;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size cache of perft counts keyed by position key and depth, so
+ * transpositions in the move tree are only counted once.
+ * <p>
+ * Each entry is two longs: the count and depth packed together, and that
+ * value XORed with the hashed key. An entry only matches when both halves
+ * agree, so a read that races with a write to the same slot just misses
+ * instead of returning a torn entry. That lets many perft threads share one
+ * table without locking. New entries always replace old ones.
+ */
+public class PerftTable {
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final AtomicLongArray entries;
+    private final int mask;
+
+    /**
+     * @param megabytes the size of the table, rounded down to a power of two
+     *                  number of entries
+     */
+    public PerftTable(int megabytes) {
+        long wanted = Math.max(1L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int size = (int) Math.min(Long.highestOneBit(wanted), 1 << 29);
+        entries = new AtomicLongArray(size * 2);
+        mask = size - 1;
+    }
+
+    /**
+     * @return the cached count for the position at the given depth, or -1 if
+     * it isn't in the table
+     */
+    public long probe(long positionKey, int depth) {
+        long hash = hash(positionKey, depth);
+        int index = ((int) hash & mask) * 2;
+        long check = entries.getOpaque(index);
+        long data = entries.getOpaque(index + 1);
+        if ((check ^ data) != hash || (data & 0xFF) != depth) {
+            return -1;
+        }
+        return data >>> 8;
+    }
+
+    public void store(long positionKey, int depth, long nodes) {
+        long hash = hash(positionKey, depth);
+        int index = ((int) hash & mask) * 2;
+        long data = (nodes << 8) | depth;
+        entries.setOpaque(index, hash ^ data);
+        entries.setOpaque(index + 1, data);
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.setOpaque(i, 0L);
+        }
+    }
+
+    // spreads the same position at different depths over different slots
+    private static long hash(long positionKey, int depth) {
+        return positionKey ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+}
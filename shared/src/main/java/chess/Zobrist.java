@@ -0,0 +1,31 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key of
+ * every piece on its square, plus the side-to-move key when black is to
+ * move, so adding or removing a piece updates the key with a single XOR.
+ * <p>
+ * The keys come from a fixed seed so the same position gets the same key in
+ * every process.
+ */
+final class Zobrist {
+
+    // indexed by piece code, then square
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
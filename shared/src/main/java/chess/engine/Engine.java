@@ -0,0 +1,94 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Picks moves for a computer opponent. Searches share the engine's
+ * transposition table, so later searches start from what earlier ones
+ * learned, and several threads can search with one engine at once. A
+ * search with more than one thread in its limits runs helper searches on
+ * the extra threads, which only help by filling the table; the move always
+ * comes from the calling thread's search.
+ */
+public class Engine {
+
+    private final TranspositionTable table;
+
+    public Engine() {
+        this(TranspositionTable.DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param hashMegabytes the size of the transposition table
+     */
+    public Engine(int hashMegabytes) {
+        table = new TranspositionTable(hashMegabytes);
+    }
+
+    /**
+     * Finds the best move for the team whose turn it is. The game isn't
+     * changed, and the move returned can be passed to its makeMove.
+     *
+     * @param game   the game to pick a move in
+     * @param limits when to stop searching
+     * @return the best move found, or null if the team to move has no legal
+     * moves
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).move();
+    }
+
+    /**
+     * Same as bestMove, but also reports the score, depth and node count of
+     * the search
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        AtomicBoolean stop = new AtomicBoolean();
+        Search[] helpers = new Search[limits.threads() - 1];
+        Thread[] threads = new Thread[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(game, limits, table, stop, i + 1);
+            threads[i] = Thread.ofPlatform().daemon().name("search-helper-" + (i + 1)).start(helpers[i]::run);
+        }
+        SearchResult result;
+        try {
+            result = new Search(game, limits, table, stop, 0).run();
+        } finally {
+            stop.set(true);
+            joinAll(threads);
+        }
+        long nodes = result.nodes();
+        for (Search helper : helpers) {
+            nodes += helper.nodes();
+        }
+        return new SearchResult(result.move(), result.score(), result.depth(), nodes);
+    }
+
+    // helpers stop within a few thousand nodes of being told to, so wait them out even if interrupted
+    private static void joinAll(Thread[] threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the transposition table, for its hit and collision statistics
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+}
@@ -0,0 +1,65 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Scores positions for the search, in centipawns. The score blends the
+ * board's running middlegame and endgame totals by how many pieces are left,
+ * so evaluating a leaf costs the same however many pieces are on the board.
+ */
+public final class Evaluator {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the score of the position for the team whose turn it is
+     */
+    public static int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = taper(board.middlegameScore(), board.endgameScore(), board.phase());
+        assert score == recompute(board) : "incremental evaluation out of step with the board";
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Scores the board from white's point of view by adding up every piece
+     * from scratch, for checking the board's running totals. Much slower
+     * than evaluate.
+     */
+    public static int recompute(ChessBoard board) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : TYPES) {
+                long pieces = board.pieces(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    middlegame += PieceSquareTables.middlegame(color, type, square);
+                    endgame += PieceSquareTables.endgame(color, type, square);
+                    phase += PieceSquareTables.phase(type);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        return taper(middlegame, endgame, phase);
+    }
+
+    /**
+     * @return the total value of the given team's pieces
+     */
+    public static int material(ChessBoard board, ChessGame.TeamColor color) {
+        return board.material(color);
+    }
+
+    private static int taper(int middlegame, int endgame, int phase) {
+        phase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+}
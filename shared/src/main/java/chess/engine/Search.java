@@ -0,0 +1,279 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.PieceSquareTables;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One search of one position: negamax alpha-beta with iterative deepening,
+ * and a quiescence search over captures and promotions at the leaves so a
+ * line isn't scored in the middle of an exchange.
+ * <p>
+ * Plays moves on its own copy of the game, so it never touches the game it
+ * was given. For a parallel search, helper searches run the same root on
+ * other threads until the main search raises the shared stop flag, with odd
+ * helpers a depth ahead so threads spread over different depths and fill the
+ * shared table for each other (Lazy SMP).
+ */
+final class Search {
+
+    static final int MATE = 30000;
+    static final int INFINITY = 32000;
+    static final int MAX_PLY = 128;
+
+    // how many nodes pass between looking at the clock
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final ChessGame game;
+    private final SearchLimits limits;
+    private final TranspositionTable table;
+    private final AtomicBoolean stop;
+    // 0 for the main search, which honors the limits and reports the move
+    private final int helper;
+    private final long start;
+    private final long timeNanos;
+
+    // one move list and set of ordering scores per ply, so the search doesn't allocate
+    private final MoveList[] moves = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][];
+
+    private long nodes;
+    private boolean stopped;
+    private int completedDepth;
+    private int rootBest;
+
+    Search(ChessGame game, SearchLimits limits, TranspositionTable table, AtomicBoolean stop, int helper) {
+        this.game = game.copy();
+        this.limits = limits;
+        this.table = table;
+        this.stop = stop;
+        this.helper = helper;
+        start = System.nanoTime();
+        timeNanos = TimeUnit.MILLISECONDS.toNanos(limits.timeMillis());
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moves[ply] = new MoveList();
+            orderScores[ply] = new int[64];
+        }
+    }
+
+    SearchResult run() {
+        MoveList root = moves[0];
+        root.clear();
+        MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), root);
+        if (root.isEmpty()) {
+            return new SearchResult(null, game.isInCheck(game.getTeamTurn()) ? -MATE : 0, 0, 0);
+        }
+        int best = root.get(0);
+        int bestScore = 0;
+        int firstDepth = 1 + (helper & 1);
+        int lastDepth = helper == 0 ? limits.depth() : SearchLimits.MAX_DEPTH;
+        for (int depth = firstDepth; depth <= lastDepth; depth++) {
+            rootBest = best;
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            best = rootBest;
+            bestScore = score;
+            completedDepth = depth;
+            // a shorter mate won't turn up deeper
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+        return new SearchResult(PackedMove.toChessMove(best), bestScore, completedDepth, nodes);
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (shouldStop()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(game);
+        }
+        long key = game.positionKey();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        MoveList list = moves[ply];
+        if (ply > 0) {
+            list.clear();
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), list);
+            if (list.isEmpty()) {
+                // checkmated, preferring the slowest mate, or stalemated
+                return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+            }
+        }
+        scoreMoves(list, ply, hashMove);
+        int bound = TranspositionTable.BOUND_UPPER;
+        int bestMove = 0;
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, i, ply);
+            game.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                table.store(key, move, toTable(beta, ply), depth, TranspositionTable.BOUND_LOWER);
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                bound = TranspositionTable.BOUND_EXACT;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+            }
+        }
+        table.store(key, bestMove, toTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    // mate scores are stored as distance from the entry's position rather than from the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    // searches only captures and promotions until the position is quiet
+    private int quiescence(int ply, int alpha, int beta) {
+        if (shouldStop()) {
+            return 0;
+        }
+        int standPat = Evaluator.evaluate(game);
+        if (ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat >= beta) {
+            return beta;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        MoveList list = moves[ply];
+        list.clear();
+        MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), list);
+        scoreMoves(list, ply, 0);
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, i, ply);
+            // quiet moves sort last, so the rest of the list is quiet too
+            if (orderScores[ply][i] <= 0) {
+                break;
+            }
+            game.doMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    // counts a node, and reports whether the search was told to stop or, once the
+    // first iteration is done, the main search has reached a limit
+    private boolean shouldStop() {
+        nodes++;
+        if (stopped) {
+            return true;
+        }
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && stop.get()) {
+            stopped = true;
+        } else if (helper != 0 || completedDepth == 0) {
+            return false;
+        } else if (nodes >= limits.nodes()) {
+            stopped = true;
+        } else if ((nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - start >= timeNanos) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    // scores captures by most valuable victim, least valuable attacker, with promotions
+    // scored by the new piece and everything else scored 0; the best move from the
+    // last iteration goes first at the root, and the table's best move elsewhere
+    private void scoreMoves(MoveList list, int ply, int hashMove) {
+        if (orderScores[ply].length < list.size()) {
+            orderScores[ply] = new int[list.size() * 2];
+        }
+        int[] scores = orderScores[ply];
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            int score = 0;
+            if (PackedMove.isCapture(move)) {
+                score += 10 * PieceSquareTables.value(board.pieceAt(PackedMove.to(move)).getPieceType())
+                        - PieceSquareTables.value(board.pieceAt(PackedMove.from(move)).getPieceType());
+            }
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            if (promotion != null) {
+                score += PieceSquareTables.value(promotion);
+            }
+            if (ply == 0 ? move == rootBest : move == hashMove) {
+                score = Integer.MAX_VALUE;
+            }
+            scores[i] = score;
+        }
+    }
+
+    // moves the best scored move left in the list to the given index, and returns it
+    private int pickNext(MoveList list, int index, int ply) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            list.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return list.get(index);
+    }
+}
@@ -0,0 +1,63 @@
+package chess.engine;
+
+import java.time.Duration;
+
+/**
+ * When a search should stop: after a depth, a number of nodes or an amount
+ * of time, whichever comes first. The first iteration always completes, so a
+ * search with limits always has a move to return. Also sets how many threads
+ * to search with.
+ *
+ * @param depth      the deepest iteration to search, in plies
+ * @param nodes      how many nodes the main thread searches, or Long.MAX_VALUE for no limit
+ * @param timeMillis how long to search, or Long.MAX_VALUE for no limit
+ * @param threads    how many threads to search with, counting the main thread
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis, int threads) {
+
+    public static final int MAX_DEPTH = 64;
+    public static final int MAX_THREADS = 256;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        if (nodes < 1) {
+            throw new IllegalArgumentException("Node limit must be positive: " + nodes);
+        }
+        if (timeMillis < 1) {
+            throw new IllegalArgumentException("Time limit must be positive: " + timeMillis);
+        }
+        if (threads < 1 || threads > MAX_THREADS) {
+            throw new IllegalArgumentException("Threads must be between 1 and " + MAX_THREADS + ": " + threads);
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE, 1);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, Long.MAX_VALUE, 1);
+    }
+
+    public static SearchLimits time(Duration time) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, time.toMillis(), 1);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, timeMillis, threads);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, timeMillis, threads);
+    }
+
+    public SearchLimits withTime(Duration time) {
+        return new SearchLimits(depth, nodes, time.toMillis(), threads);
+    }
+
+    public SearchLimits withThreads(int threads) {
+        return new SearchLimits(depth, nodes, timeMillis, threads);
+    }
+}
@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search
+ *
+ * @param move  the best move found, or null if the team to move has no legal moves
+ * @param score the score of the move in centipawns for the team to move, with
+ *              mates scored near Search.MATE
+ * @param depth the deepest iteration that completed
+ * @param nodes how many nodes were searched
+ */
+public record SearchResult(ChessMove move, int score, int depth, long nodes) {
+}
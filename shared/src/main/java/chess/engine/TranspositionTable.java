@@ -0,0 +1,214 @@
+package chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of search results keyed by position key, stored off the
+ * heap in a direct buffer so a large table adds nothing for the garbage
+ * collector to scan.
+ * <p>
+ * The table is split into buckets of four 16-byte entries, one cache line
+ * each. An entry is the packed data and that data XORed with the position
+ * key, and it only matches a key when the two agree. A write racing with a
+ * read of the same entry therefore looks like a miss rather than a wrong
+ * result, so any number of search threads can share one table without
+ * locking.
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_MEGABYTES = 16;
+    public static final int MAX_MEGABYTES = 1024;
+
+    static final int BOUND_EXACT = 1;
+    static final int BOUND_LOWER = 2;
+    static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+
+    // opaque access keeps each long read and written whole
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // data layout, from the low bit up: 17 bits of packed move, 16 bits of
+    // score, 8 bits of depth, 2 bits of bound and 8 bits of search generation
+    private static final int SCORE_SHIFT = 17;
+    private static final int DEPTH_SHIFT = 33;
+    private static final int BOUND_SHIFT = 41;
+    private static final int GENERATION_SHIFT = 43;
+
+    private final ByteBuffer buffer;
+    private final int bucketMask;
+    private int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param megabytes the size of the table, from 1 to MAX_MEGABYTES, rounded
+     *                  down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAX_MEGABYTES + " MB: " + megabytes);
+        }
+        int buckets = Integer.highestOneBit(megabytes) * (1024 * 1024 / BUCKET_BYTES);
+        bucketMask = buckets - 1;
+        // over-allocate so the buckets can start on a cache line
+        buffer = ByteBuffer.allocateDirect(buckets * BUCKET_BYTES + BUCKET_BYTES)
+                .alignedSlice(BUCKET_BYTES)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Starts a new search, so entries from earlier searches are replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * @return the data stored for the position, or 0 if it isn't in the table
+     */
+    long probe(long key) {
+        probes.increment();
+        int bucket = bucketOffset(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long check = (long) LONGS.getOpaque(buffer, offset);
+            long data = (long) LONGS.getOpaque(buffer, offset + 8);
+            if (data != 0 && (check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, over the same position's entry if it has one,
+     * or else over the shallowest entry, with entries from earlier searches
+     * counting as shallower
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        int bucket = bucketOffset(key);
+        int replace = bucket;
+        int replaceValue = Integer.MAX_VALUE;
+        long replaced = 0;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long check = (long) LONGS.getOpaque(buffer, offset);
+            long data = (long) LONGS.getOpaque(buffer, offset + 8);
+            if (data == 0 || (check ^ data) == key) {
+                replace = offset;
+                replaced = 0;
+                break;
+            }
+            int age = (generation - generation(data)) & 0xFF;
+            int value = depth(data) - 8 * age;
+            if (value < replaceValue) {
+                replace = offset;
+                replaceValue = value;
+                replaced = data;
+            }
+        }
+        if (replaced != 0) {
+            collisions.increment();
+        }
+        long data = (move & 0x1FFFFL)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+        LONGS.setOpaque(buffer, replace, key ^ data);
+        LONGS.setOpaque(buffer, replace + 8, data);
+    }
+
+    /**
+     * Empties the table and resets its statistics
+     */
+    public void clear() {
+        for (int offset = 0; offset < buffer.capacity(); offset += 8) {
+            LONGS.setOpaque(buffer, offset, 0L);
+        }
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public long capacity() {
+        return (long) (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return the number of stores that had to evict a different position's entry
+     */
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * @return the fraction of probes that found their position, or 0 before any probes
+     */
+    public double hitRate() {
+        long probed = probes.sum();
+        return probed == 0 ? 0 : (double) hits.sum() / probed;
+    }
+
+    static int move(long data) {
+        return (int) (data & 0x1FFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    private int bucketOffset(long key) {
+        return ((int) (key >>> 32) & bucketMask) * BUCKET_BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable{capacity=%d, probes=%d, hits=%d, stores=%d, collisions=%d}",
+                capacity(), probes(), hits(), stores(), collisions());
+    }
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class BoardCodecTests {
+
+    @Test
+    @DisplayName("Games Round Trip Through 33 Bytes")
+    public void roundTrip() {
+        Random random = new Random(240);
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            Playouts.play(position.game(), random, 100, game -> {
+                byte[] encoded = BoardCodec.encode(game);
+                Assertions.assertEquals(33, encoded.length);
+                ChessGame decoded = BoardCodec.decodeGame(encoded);
+                Assertions.assertEquals(game, decoded, "Game changed in a round trip: " + Fen.format(game));
+                Assertions.assertEquals(game.positionKey(), decoded.positionKey(), "Decoded game has a different key");
+
+                byte[] board = BoardCodec.encode(game.getBoard());
+                Assertions.assertEquals(32, board.length);
+                Assertions.assertEquals(game.getBoard(), BoardCodec.decodeBoard(board), "Board changed in a round trip");
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Empty And Starting Boards")
+    public void knownEncodings() {
+        Assertions.assertArrayEquals(new byte[32], BoardCodec.encode(new ChessBoard()));
+        byte[] start = BoardCodec.encode(new ChessGame());
+        // a1 white rook (code 4) and b1 white knight (code 3) share the first byte
+        Assertions.assertEquals((byte) (5 | 4 << 4), start[0]);
+        Assertions.assertEquals(0, start[32], "White to move should leave the flags clear");
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed Bytes")
+    public void malformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BoardCodec.decodeBoard(new byte[31]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BoardCodec.decodeGame(new byte[32]));
+        byte[] badPiece = new byte[32];
+        badPiece[5] = (byte) 0xD0;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BoardCodec.decodeBoard(badPiece));
+        byte[] badFlags = new byte[33];
+        badFlags[32] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BoardCodec.decodeGame(badFlags));
+    }
+}
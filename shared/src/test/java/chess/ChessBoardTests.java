@@ -0,0 +1,147 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Random;
+
+public class ChessBoardTests {
+
+    @Test
+    @DisplayName("Copies Are Equal And Independent")
+    public void copy() {
+        ChessBoard board = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1").getBoard();
+        ChessBoard copy = board.copy();
+        Assertions.assertEquals(board, copy);
+        Assertions.assertEquals(board.zobristKey(), copy.zobristKey());
+        Assertions.assertEquals(board.middlegameScore(), copy.middlegameScore());
+        Assertions.assertEquals(board.occupancy(), copy.occupancy());
+
+        copy.addPiece(new ChessPosition(5, 4), null);
+        Assertions.assertNotNull(board.getPiece(new ChessPosition(5, 4)), "Changing a copy changed the original");
+        Assertions.assertNotEquals(board.zobristKey(), copy.zobristKey());
+    }
+
+    @Test
+    @DisplayName("Copying Into A Board Replaces It")
+    public void copyInto() {
+        ChessBoard source = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1").getBoard();
+        ChessGame game = new ChessGame();
+        ChessBoard target = game.getBoard();
+        Assertions.assertEquals(20, game.legalMoves(ChessGame.TeamColor.WHITE).values().stream().mapToInt(Collection::size).sum());
+
+        source.copyInto(target);
+        Assertions.assertEquals(source, target);
+        Assertions.assertEquals(source.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                target.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        // the game's cached moves were for the old position
+        Assertions.assertEquals(14, game.legalMoves(ChessGame.TeamColor.WHITE).values().stream().mapToInt(Collection::size).sum(),
+                "copyInto didn't invalidate cached moves");
+    }
+
+    @Test
+    @DisplayName("Gson Stores Only The Squares And Rebuilds The Rest")
+    public void gsonRoundTrip() {
+        ChessBoard board = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1").getBoard();
+        Gson gson = new Gson();
+        String json = gson.toJson(board);
+        Assertions.assertFalse(json.contains("pieceBoards") || json.contains("key"), "Derived fields were serialized: " + json);
+
+        ChessBoard loaded = gson.fromJson(json, ChessBoard.class);
+        Assertions.assertEquals(board, loaded);
+        Assertions.assertEquals(board.zobristKey(), loaded.zobristKey());
+        Assertions.assertEquals(board.occupancy(), loaded.occupancy());
+        Assertions.assertEquals(board.middlegameScore(), loaded.middlegameScore());
+        Assertions.assertEquals(board.endgameScore(), loaded.endgameScore());
+        Assertions.assertEquals(board.phase(), loaded.phase());
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            Assertions.assertEquals(board.kingSquare(color), loaded.kingSquare(color));
+            Assertions.assertEquals(board.material(color), loaded.material(color));
+        }
+    }
+
+    @Test
+    @DisplayName("Gson Loads Games Saved In The Old Board Layout")
+    public void gsonLegacyLayout() {
+        // as saved before the bitboards: pieces indexed by column, then row
+        String json = """
+                {"teamTurn":"BLACK","board":{"gameBoard":[
+                [{"pieceColor":"WHITE","type":"ROOK"},null,null,null,null,null,{"pieceColor":"BLACK","type":"PAWN"},null],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [{"pieceColor":"WHITE","type":"KING"},null,null,{"pieceColor":"WHITE","type":"PAWN"},null,null,null,{"pieceColor":"BLACK","type":"KING"}],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null]
+                ]}}""";
+        Gson gson = new Gson();
+        ChessGame loaded = gson.fromJson(json, ChessGame.class);
+        ChessGame expected = Fen.parse("4k3/p7/8/8/4P3/8/8/R3K3 b - - 0 1");
+        Assertions.assertEquals(expected.getBoard(), loaded.getBoard(), "Old layout lost pieces");
+        Assertions.assertEquals(expected.positionKey(), loaded.positionKey());
+        Assertions.assertEquals(expected.getBoard().occupancy(), loaded.getBoard().occupancy());
+        Assertions.assertNotNull(loaded.snapshot().getPiece(new ChessPosition(1, 1)), "Snapshot missed the loaded board");
+
+        // and saving it again writes the new layout, which reads back the same
+        ChessGame reloaded = gson.fromJson(gson.toJson(loaded), ChessGame.class);
+        Assertions.assertEquals(expected.getBoard(), reloaded.getBoard());
+
+        Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson("{\"occupied\":0}", ChessBoard.class),
+                "A board with no squares loaded as an empty board");
+    }
+
+    @Test
+    @DisplayName("Square Indexes Match Rows And Columns")
+    public void squareIndexes() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                int index = position.index();
+                Assertions.assertEquals((row - 1) * 8 + col - 1, index);
+                Assertions.assertEquals(position, ChessPosition.ofIndex(index));
+                Assertions.assertEquals(board.getPiece(position), board.pieceAt(index));
+            }
+        }
+        Assertions.assertEquals(-1, new ChessPosition(0, 4).index(), "Off-board position got an index");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessPosition.ofIndex(64));
+    }
+
+    @Test
+    @DisplayName("King Squares And Material Follow Moves")
+    public void kingAndMaterial() {
+        Random random = new Random(240);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            Playouts.play(new ChessGame(), random, 100, ChessBoardTests::checkKingAndMaterial);
+        }
+    }
+
+    // compares what the board tracks against a scan of every square
+    private static void checkKingAndMaterial(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int king = -1;
+            int material = 0;
+            int count = 0;
+            for (int square = 63; square >= 0; square--) {
+                ChessPiece piece = board.pieceAt(square);
+                if (piece != null && piece.getTeamColor() == color) {
+                    count++;
+                    material += PieceSquareTables.value(piece.getPieceType());
+                    if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                        king = square;
+                    }
+                }
+            }
+            Assertions.assertEquals(king, board.kingSquare(color), "Wrong king square in " + Fen.format(game));
+            Assertions.assertEquals(material, board.material(color), "Wrong material in " + Fen.format(game));
+            Assertions.assertEquals(count, board.pieceCount(color), "Wrong piece count in " + Fen.format(game));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Map;
+
+public class ChessGameTests {
+
+    @Test
+    @DisplayName("Bulk Legal Moves Match validMoves Per Piece")
+    public void legalMovesByOrigin() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            ChessGame game = position.game();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                Map<ChessPosition, Collection<ChessMove>> byOrigin = game.legalMoves(color);
+                MoveList moves = new MoveList();
+                game.legalMoves(color, moves);
+                int total = 0;
+                for (int row = 1; row <= 8; row++) {
+                    for (int col = 1; col <= 8; col++) {
+                        ChessPosition origin = new ChessPosition(row, col);
+                        if (game.getBoard().getTeamOfSquare(origin) != color) {
+                            Assertions.assertFalse(byOrigin.containsKey(origin), "Moves listed for a square " + color + " doesn't hold");
+                            continue;
+                        }
+                        Collection<ChessMove> expected = game.validMoves(origin);
+                        Assertions.assertEquals(expected, byOrigin.getOrDefault(origin, expected.isEmpty() ? expected : null),
+                                "Wrong moves from " + origin + " in " + position);
+                        total += expected.size();
+                    }
+                }
+                Assertions.assertEquals(total, moves.size(), "Move list doesn't hold every legal move in " + position);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Undo Restores The Board, Key And Turn")
+    public void undoRestoresPosition() {
+        // captures that promote, plain promotions and captures, two plies deep
+        ChessGame game = Fen.parse("r1n1k3/1P6/8/3p4/4P3/8/8/4K3 w - - 0 1");
+        ChessBoard before = game.getBoard().copy();
+        long key = game.positionKey();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        int promotions = 0;
+        int captures = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            promotions += PackedMove.promotion(move) != null ? 1 : 0;
+            captures += game.getBoard().codeAt(PackedMove.to(move)) != ChessBoard.EMPTY ? 1 : 0;
+            game.doMove(move);
+            MoveList replies = new MoveList();
+            game.legalMoves(game.getTeamTurn(), replies);
+            ChessBoard afterMove = game.getBoard().copy();
+            long afterMoveKey = game.positionKey();
+            for (int j = 0; j < replies.size(); j++) {
+                game.doMove(replies.get(j));
+                game.undoMove();
+                Assertions.assertEquals(afterMove, game.getBoard(), "Undo of " + PackedMove.toChessMove(replies.get(j)) + " left the board changed");
+                Assertions.assertEquals(afterMoveKey, game.positionKey());
+            }
+            game.undoMove();
+            Assertions.assertEquals(before, game.getBoard(), "Undo of " + PackedMove.toChessMove(move) + " left the board changed");
+            Assertions.assertEquals(key, game.positionKey(), "Undo of " + PackedMove.toChessMove(move) + " left the key changed");
+            Assertions.assertEquals(before.zobristKey(), game.getBoard().zobristKey(), "Undo left the board's key changed");
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        }
+        Assertions.assertTrue(promotions >= 8 && captures >= 5, "Position should cover promotions and captures");
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    @DisplayName("Transposed Move Orders Share A Position Key")
+    public void transpositionKeys() throws InvalidMoveException {
+        ChessMove whiteKnightF3 = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        ChessMove whiteKnightC3 = new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null);
+        ChessMove blackKnightF6 = new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null);
+        ChessMove blackKnightC6 = new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null);
+
+        ChessGame first = new ChessGame();
+        first.makeMove(whiteKnightF3);
+        first.makeMove(blackKnightF6);
+        first.makeMove(whiteKnightC3);
+        first.makeMove(blackKnightC6);
+
+        ChessGame second = new ChessGame();
+        second.makeMove(whiteKnightC3);
+        second.makeMove(blackKnightC6);
+        second.makeMove(whiteKnightF3);
+        second.makeMove(blackKnightF6);
+
+        Assertions.assertEquals(first.positionKey(), second.positionKey(), "Move order changed the key");
+        // and the same as hashing the position from scratch
+        ChessGame parsed = Fen.parse("r1bqkb1r/pppppppp/2n2n2/8/8/2N2N2/PPPPPPPP/R1BQKB1R w - - 0 1");
+        Assertions.assertEquals(parsed.positionKey(), first.positionKey(), "Incremental key differs from a fresh one");
+
+        second.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(first.positionKey(), second.positionKey(), "Key ignores the team to move");
+    }
+
+    @Test
+    @DisplayName("Boards With Two Kings Are Only Read")
+    public void multipleKingsLeaveBoardAlone() {
+        // more than one king a side takes the move-by-move path
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/8/K3K2R w - - 0 1");
+        ChessBoard board = game.getBoard();
+        long version = board.version();
+        Map<ChessPosition, Collection<ChessMove>> moves = game.legalMoves(ChessGame.TeamColor.WHITE);
+        Assertions.assertFalse(moves.isEmpty());
+        Assertions.assertEquals(version, board.version(), "Working out moves changed the board");
+        Assertions.assertEquals(moves.get(new ChessPosition(1, 8)).size(), game.validMoves(new ChessPosition(1, 8)).size());
+        Assertions.assertEquals(version, board.version(), "Working out moves changed the board");
+    }
+
+    @Test
+    @DisplayName("Cached Results Follow Direct Board Edits")
+    public void cacheInvalidation() {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/8/K7 b - - 0 1");
+        ChessPosition king = new ChessPosition(8, 5);
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(5, game.validMoves(king).size());
+        Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.gameStatus());
+
+        // a rook edited straight onto the board gives check and takes away squares
+        game.getBoard().addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK), "Check from an added piece was missed");
+        Assertions.assertEquals(4, game.validMoves(king).size(), "Moves weren't recomputed after addPiece");
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.gameStatus());
+
+        // a whole new board
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(20, game.legalMoves(ChessGame.TeamColor.WHITE).values().stream().mapToInt(Collection::size).sum(),
+                "Moves weren't recomputed after setBoard");
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+
+        // and the same board edited back
+        board.resetBoard();
+        board.addPiece(new ChessPosition(2, 5), null);
+        Assertions.assertEquals(29, game.legalMoves(ChessGame.TeamColor.WHITE).values().stream().mapToInt(Collection::size).sum(),
+                "Moves weren't recomputed after removing a pawn");
+    }
+
+    @Test
+    @DisplayName("Snapshots Are Published And Never Change")
+    public void snapshots() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        BoardSnapshot start = game.snapshot();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, start.getTeamTurn());
+        Assertions.assertEquals(game.getBoard(), start.toBoard());
+
+        ChessPosition from = new ChessPosition(2, 5);
+        ChessPosition to = new ChessPosition(4, 5);
+        game.makeMove(new ChessMove(from, to, null));
+        BoardSnapshot afterMove = game.snapshot();
+        Assertions.assertNotNull(start.getPiece(from), "An old snapshot changed with the board");
+        Assertions.assertNull(start.getPiece(to), "An old snapshot changed with the board");
+        Assertions.assertNull(afterMove.getPiece(from), "Move wasn't published");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, afterMove.getTeamTurn());
+        Assertions.assertEquals(game.positionKey(), afterMove.positionKey());
+
+        // direct edits wait for publishSnapshot
+        game.getBoard().addPiece(from, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertSame(afterMove, game.snapshot(), "A direct edit published a snapshot");
+        game.publishSnapshot();
+        Assertions.assertEquals(ChessPiece.PieceType.QUEEN, game.snapshot().getPiece(from).getPieceType());
+
+        // and so do moves played with doMove, which were never made in the game
+        BoardSnapshot published = game.snapshot();
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        game.doMove(moves.get(0));
+        Assertions.assertSame(published, game.snapshot(), "Reading the snapshot published a doMove position");
+        game.undoMove();
+    }
+
+    @Test
+    @DisplayName("Copies Keep The Position And Are Independent")
+    public void copy() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessGame copy = game.copy();
+        Assertions.assertEquals(game.positionKey(), copy.positionKey());
+        Assertions.assertEquals(game.getBoard(), copy.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, copy.snapshot().getTeamTurn());
+        Assertions.assertEquals(game.snapshot(), copy.snapshot());
+
+        copy.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn(), "Moving the copy changed the original");
+        Assertions.assertNotNull(game.getBoard().getPiece(new ChessPosition(7, 5)), "Moving the copy changed the original");
+    }
+
+    @Test
+    @DisplayName("Gson Round Trip Publishes The Loaded Position")
+    public void gsonSnapshot() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessPosition e2 = new ChessPosition(2, 5);
+        ChessPosition e4 = new ChessPosition(4, 5);
+        game.makeMove(new ChessMove(e2, e4, null));
+
+        Gson gson = new Gson();
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        BoardSnapshot snapshot = loaded.snapshot();
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, snapshot.getTeamTurn(), "Snapshot kept the constructor's turn");
+        Assertions.assertNotNull(snapshot.getPiece(e4), "Snapshot kept the constructor's board");
+        Assertions.assertNull(snapshot.getPiece(e2), "Snapshot kept the constructor's board");
+        Assertions.assertEquals(game.positionKey(), snapshot.positionKey());
+    }
+}
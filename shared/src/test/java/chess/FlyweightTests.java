@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FlyweightTests {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+    };
+
+    @Test
+    @DisplayName("Positions Are Shared And Equal Constructed Ones")
+    public void positions() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition shared = ChessPosition.of(row, col);
+                Assertions.assertSame(shared, ChessPosition.of(row, col), "A new position was made for " + shared);
+                Assertions.assertEquals(new ChessPosition(row, col), shared);
+                Assertions.assertEquals(new ChessPosition(row, col).hashCode(), shared.hashCode());
+            }
+        }
+        // off the board still works, just without sharing
+        Assertions.assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9));
+    }
+
+    @Test
+    @DisplayName("Pieces Are Shared And Equal Constructed Ones")
+    public void pieces() {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece shared = ChessPiece.of(color, type);
+                Assertions.assertSame(shared, ChessPiece.of(color, type), "A new piece was made for " + shared);
+                Assertions.assertEquals(new ChessPiece(color, type), shared);
+                Assertions.assertEquals(new ChessPiece(color, type).hashCode(), shared.hashCode());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Are Shared And Equal Constructed Ones")
+    public void moves() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                ChessPosition start = ChessPosition.ofIndex(from);
+                ChessPosition end = ChessPosition.ofIndex(to);
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    ChessMove shared = ChessMove.of(start, end, promotion);
+                    ChessMove constructed = new ChessMove(new ChessPosition(start.getRow(), start.getColumn()),
+                            new ChessPosition(end.getRow(), end.getColumn()), promotion);
+                    Assertions.assertSame(shared, ChessMove.of(start, end, promotion), "A new move was made for " + shared);
+                    Assertions.assertEquals(constructed, shared);
+                    Assertions.assertEquals(constructed.hashCode(), shared.hashCode());
+                }
+            }
+        }
+        ChessMove offBoard = new ChessMove(new ChessPosition(0, 1), new ChessPosition(1, 1), null);
+        Assertions.assertEquals(offBoard, ChessMove.of(new ChessPosition(0, 1), new ChessPosition(1, 1), null));
+    }
+}
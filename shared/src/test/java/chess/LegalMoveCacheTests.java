@@ -0,0 +1,110 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LegalMoveCacheTests {
+
+    @Test
+    @DisplayName("Stays Under Its Memory Cap")
+    public void memoryCap() {
+        LegalMoveCache cache = new LegalMoveCache(1);
+        int[] moves = new int[40];
+        byte[] position = BoardCodec.encode(new ChessGame());
+        for (long key = 1; key <= 100_000; key++) {
+            cache.put(key * 0x9E3779B97F4A7C15L, position, moves, ChessGame.GameStatus.IN_PROGRESS);
+            Assertions.assertTrue(cache.bytes() <= cache.maxBytes(), "Cache grew past its cap");
+        }
+        Assertions.assertTrue(cache.evictions() > 0, "A full cache should evict");
+
+        long key = 0x1234_5678_9ABC_DEF0L;
+        cache.put(key, position, new int[]{1, 2, 3}, ChessGame.GameStatus.CHECK);
+        LegalMoveCache.Entry entry = cache.get(key, position);
+        Assertions.assertNotNull(entry, "Newest entry was not cached");
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, entry.moves());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, entry.status());
+        Assertions.assertNull(cache.get(key + 1, position), "Found an entry for a key never cached");
+    }
+
+    @Test
+    @DisplayName("A Zero Size Cache Stores Nothing")
+    public void disabled() {
+        LegalMoveCache cache = new LegalMoveCache(0);
+        byte[] position = BoardCodec.encode(new ChessGame());
+        cache.put(42, position, new int[]{1, 2, 3}, ChessGame.GameStatus.IN_PROGRESS);
+        Assertions.assertNull(cache.get(42, position), "A disabled cache kept an entry");
+        Assertions.assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    @DisplayName("Colliding Keys Don't Share Moves")
+    public void collidingKeys() {
+        LegalMoveCache cache = new LegalMoveCache(1);
+        ChessGame start = new ChessGame();
+        ChessGame other = new ChessGame();
+        other.getBoard().addPiece(new ChessPosition(4, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        byte[] startPosition = BoardCodec.encode(start);
+        byte[] otherPosition = BoardCodec.encode(other);
+
+        long key = 42;
+        cache.put(key, startPosition, new int[]{1, 2, 3}, ChessGame.GameStatus.IN_PROGRESS);
+        Assertions.assertNull(cache.get(key, otherPosition),
+                "A different position with the same key was given another position's moves");
+
+        cache.put(key, otherPosition, new int[]{4, 5}, ChessGame.GameStatus.CHECK);
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, cache.get(key, startPosition).moves());
+        Assertions.assertArrayEquals(new int[]{4, 5}, cache.get(key, otherPosition).moves());
+    }
+
+    @Test
+    @DisplayName("Games Share Moves Safely Across Threads")
+    public void sharedAcrossGames() throws Exception {
+        long hitsBefore = LegalMoveCache.shared().hits();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> games = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                // pairs of threads play the same games, so they meet in the cache
+                int seed = thread / 2;
+                games.add(pool.submit(() -> playAndCheck(seed)));
+            }
+            for (Future<?> game : games) {
+                game.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertTrue(LegalMoveCache.shared().hits() > hitsBefore, "Games never hit the shared cache");
+    }
+
+    // plays random games, checking the cached moves against the generator at every position
+    private static Void playAndCheck(int seed) {
+        Random random = new Random(seed);
+        MoveList expected = new MoveList();
+        MoveList cached = new MoveList();
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            Playouts.play(new ChessGame(), random, 80, game -> {
+                ChessGame.TeamColor turn = game.getTeamTurn();
+                expected.clear();
+                MoveGenerator.legalMoves(game.getBoard(), turn, expected);
+                cached.clear();
+                game.legalMoves(turn, cached);
+                int[] want = expected.toArray();
+                int[] got = cached.toArray();
+                Arrays.sort(want);
+                Arrays.sort(got);
+                Assertions.assertArrayEquals(want, got, "Cached moves differ in " + Fen.format(game));
+            });
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class LegalMoveIteratorTests {
+
+    @Test
+    @DisplayName("Iterator Matches Full Generation, Captures First")
+    public void matchesLegalMoves() {
+        Random random = new Random(240);
+        LegalMoveIterator iterator = new LegalMoveIterator();
+        MoveList moves = new MoveList();
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            Playouts.play(position.game(), random, 200, game -> {
+                moves.clear();
+                MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < moves.size(); i++) {
+                    expected.add(moves.get(i));
+                }
+
+                Set<Integer> found = new HashSet<>();
+                boolean quiet = false;
+                iterator.reset(game.getBoard(), game.getTeamTurn());
+                for (int move = iterator.next(); move != LegalMoveIterator.NONE; move = iterator.next()) {
+                    Assertions.assertTrue(found.add(move), "Iterator repeated " + PackedMove.toNotation(move));
+                    Assertions.assertFalse(quiet && PackedMove.isCapture(move), "Capture came after a quiet move");
+                    quiet |= !PackedMove.isCapture(move);
+                }
+                Assertions.assertEquals(expected, found, "Wrong moves in " + Fen.format(game));
+                Assertions.assertEquals(!expected.isEmpty(), game.hasAnyLegalMove(game.getTeamTurn()),
+                        "hasAnyLegalMove disagrees in " + Fen.format(game));
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Game Status In One Call")
+    public void gameStatus() {
+        Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, new ChessGame().gameStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK,
+                Fen.parse("4k3/8/8/8/8/8/8/K3R3 b - - 0 1").gameStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE,
+                Fen.parse("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1").gameStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE,
+                Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1").gameStatus());
+    }
+}
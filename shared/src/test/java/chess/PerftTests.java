@@ -0,0 +1,74 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTests {
+
+    @ParameterizedTest
+    @EnumSource(Perft.ReferencePosition.class)
+    @DisplayName("Reference Position Node Counts")
+    public void referencePositions(Perft.ReferencePosition position) {
+        for (int depth = 1; depth <= position.maxDepth(); depth++) {
+            if (position.nodes(depth) == 0) {
+                continue;
+            }
+            Assertions.assertEquals(position.nodes(depth), Perft.perft(position.game(), depth),
+                    "Wrong perft count for " + position + " at depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Adds Up To Perft")
+    public void divideMatchesPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+
+        Assertions.assertEquals(20, counts.size(), "Wrong number of root moves");
+        Assertions.assertEquals(8902L, counts.values().stream().mapToLong(Long::longValue).sum(),
+                "Divide counts don't add up to the perft count");
+        Assertions.assertEquals(new ChessGame(), game, "Perft left the game changed");
+    }
+
+    @Test
+    @DisplayName("Parallel Perft Matches Reference Counts")
+    public void parallelPerft() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+                int depth = position.maxDepth();
+                ChessGame game = position.game();
+                Assertions.assertEquals(position.nodes(depth), Perft.parallelPerft(game, depth, pool),
+                        "Wrong parallel perft count for " + position + " at depth " + depth);
+                Assertions.assertEquals(position.game(), game, "Parallel perft changed the game passed in");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Hashed Perft Matches Reference Counts")
+    public void hashedPerft() {
+        PerftTable table = new PerftTable(4);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+                int depth = position.maxDepth();
+                Assertions.assertEquals(position.nodes(depth), Perft.perft(position.game(), depth, table),
+                        "Wrong hashed perft count for " + position + " at depth " + depth);
+                // the second count runs against a table already full of this position's subtrees
+                Assertions.assertEquals(position.nodes(depth), Perft.parallelPerft(position.game(), depth, pool, table),
+                        "Wrong shared table perft count for " + position + " at depth " + depth);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
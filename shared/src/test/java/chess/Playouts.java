@@ -0,0 +1,39 @@
+package chess;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Seeded random games for tests that check something at every position
+ * along the way
+ */
+public final class Playouts {
+
+    private Playouts() {
+    }
+
+    /**
+     * Plays random legal moves on the game with doMove, handing each position
+     * to the check before a move is picked, until the team to move has no
+     * legal moves or maxPlies moves have been played
+     *
+     * @param game     the game to play on, which is left at the last position
+     * @param random   picks the moves, so a seeded one replays the same game
+     * @param maxPlies the most moves to play
+     * @param check    called with the game at every position a move is played from
+     * @return the number of moves played, so callers can undo them all
+     */
+    public static int play(ChessGame game, Random random, int maxPlies, Consumer<ChessGame> check) {
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < maxPlies; ply++) {
+            check.accept(game);
+            moves.clear();
+            MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+            if (moves.isEmpty()) {
+                return ply;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+        return maxPlies;
+    }
+}
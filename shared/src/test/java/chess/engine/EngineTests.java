@@ -0,0 +1,80 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() throws InvalidMoveException {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        ChessMove move = new Engine().bestMove(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), move,
+                "Engine missed the back rank mate");
+        game.makeMove(move);
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK), "Move found isn't mate");
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Queen")
+    public void winsMaterial() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.move(),
+                "Engine didn't take the queen");
+        Assertions.assertTrue(result.score() > 0, "Winning a queen should score well");
+    }
+
+    @Test
+    @DisplayName("Stops At Node And Time Limits")
+    public void limits() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Engine engine = new Engine();
+
+        SearchResult byNodes = engine.search(game, SearchLimits.nodes(5000));
+        Assertions.assertTrue(byNodes.depth() < SearchLimits.MAX_DEPTH, "Node limit was ignored");
+        ChessMove byTime = engine.bestMove(game, SearchLimits.time(Duration.ofMillis(50)));
+
+        Assertions.assertEquals(new ChessGame(), game, "Search changed the game passed in");
+        game.makeMove(byNodes.move());
+        game.undoMove();
+        game.makeMove(byTime);
+    }
+
+    @Test
+    @DisplayName("Parallel Search Finds Mate And Counts Helper Nodes")
+    public void parallelSearch() throws InvalidMoveException {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        Engine engine = new Engine();
+        SearchResult single = engine.search(game, SearchLimits.depth(5));
+        engine.table().clear();
+        SearchResult parallel = engine.search(game, SearchLimits.depth(5).withThreads(4));
+
+        Assertions.assertEquals(single.move(), parallel.move(), "Parallel search picked a different mate");
+        game.makeMove(parallel.move());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK), "Move found isn't mate");
+
+        SearchResult timed = engine.search(new ChessGame(), SearchLimits.time(Duration.ofMillis(100)).withThreads(3));
+        Assertions.assertNotNull(timed.move(), "Timed parallel search found no move");
+        Assertions.assertTrue(timed.depth() >= 1, "Timed parallel search didn't finish an iteration");
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void noLegalMoves() {
+        ChessGame game = Fen.parse("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1");
+        Assertions.assertNull(new Engine().bestMove(game, SearchLimits.depth(2)), "Checkmated team has no move");
+    }
+}
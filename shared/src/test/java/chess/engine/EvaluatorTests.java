@@ -0,0 +1,41 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Playouts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EvaluatorTests {
+
+    @Test
+    @DisplayName("Mirrored Positions Score The Same For The Mover")
+    public void symmetric() {
+        Assertions.assertEquals(0, Evaluator.evaluate(new ChessGame()), "Start position should be even");
+        ChessGame white = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w - - 0 1");
+        ChessGame black = Fen.parse("rnbqk2r/pppp1ppp/5n2/2b1p3/4P3/2N2N2/PPPP1PPP/R1BQKB1R b - - 0 1");
+        Assertions.assertEquals(Evaluator.evaluate(white), Evaluator.evaluate(black),
+                "Color-flipped position scored differently");
+    }
+
+    @Test
+    @DisplayName("Running Totals Match A Full Recompute")
+    public void incrementalMatchesRecompute() {
+        Random random = new Random(240);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            ChessGame game = new ChessGame();
+            int played = Playouts.play(game, random, 150, position -> {
+                int score = Evaluator.evaluate(position);
+                int white = position.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+                Assertions.assertEquals(Evaluator.recompute(position.getBoard()), white, "Running totals drifted after a move");
+            });
+            for (int i = 0; i < played; i++) {
+                game.undoMove();
+            }
+            Assertions.assertEquals(0, Evaluator.evaluate(game), "Undoing every move didn't restore the totals");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stored Entries Read Back")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = PackedMove.of(12, 28, null, PackedMove.DOUBLE_PUSH);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -Search.MATE + 3, 7, TranspositionTable.BOUND_LOWER);
+
+        long data = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertEquals(move, TranspositionTable.move(data), "Wrong move read back");
+        Assertions.assertEquals(-Search.MATE + 3, TranspositionTable.score(data), "Wrong score read back");
+        Assertions.assertEquals(7, TranspositionTable.depth(data), "Wrong depth read back");
+        Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data), "Wrong bound read back");
+        Assertions.assertEquals(0, table.probe(0x1234_5678_9ABC_DEF1L), "A different key matched the entry");
+        Assertions.assertEquals(1, table.hits(), "Wrong hit count");
+        Assertions.assertEquals(2, table.probes(), "Wrong probe count");
+    }
+
+    @Test
+    @DisplayName("Full Bucket Evicts And Counts Collisions")
+    public void collisions() {
+        TranspositionTable table = new TranspositionTable(1);
+        // keys with the same high half share a bucket
+        for (int i = 0; i < 5; i++) {
+            table.store(0x4000_0000_0000_0000L | i, 1, 0, 10 - i, TranspositionTable.BOUND_EXACT);
+        }
+        Assertions.assertEquals(1, table.collisions(), "A fifth entry in a bucket should evict one");
+        Assertions.assertNotEquals(0, table.probe(0x4000_0000_0000_0000L), "The deepest entry was evicted");
+        Assertions.assertEquals(0, table.probe(0x4000_0000_0000_0003L), "The shallowest entry wasn't evicted");
+    }
+
+    @Test
+    @DisplayName("Repeated Search Hits The Table")
+    public void searchUsesTable() {
+        Engine engine = new Engine(1);
+        ChessGame game = new ChessGame();
+        SearchResult first = engine.search(game, SearchLimits.depth(4));
+        SearchResult second = engine.search(game, SearchLimits.depth(4));
+
+        Assertions.assertTrue(engine.table().hits() > 0, "Search never hit the table");
+        Assertions.assertTrue(second.nodes() < first.nodes(), "A warm table should save nodes");
+        Assertions.assertEquals(first.score(), second.score(), "A warm table changed the score");
+        ChessMove move = second.move();
+        Assertions.assertNotNull(move, "No move from the start position");
+    }
+}